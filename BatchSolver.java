@@ -0,0 +1,370 @@
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * This is the driver class for solving many Sudoku puzzles at once. Puzzles
+ * are read one after another from a single file (see PuzzleReader for the
+ * formats), solved in parallel by a pool of worker threads, and the solutions
+ * are written to the output file in the same order as the input, one line per
+ * puzzle. Puzzles without a solution are written as "no solution". A
+ * malformed puzzle is written as "error: " and where it went wrong (see
+ * PuzzleReader), so the lines of the output still match the puzzles.
+ *
+ * The engine is chosen with "--engine techniques" (SudokuSolver, the default),
+ * "--engine dlx" (DlxSolver) or "--engine bitsliced" (BitSlicedSolver, which
+ * gets the puzzles in groups of 64 instead of one by one) or "--engine vector"
+ * (VectorSolver). "--engine compare" solves every puzzle with
+ * both engines and counts the puzzles where they disagree, i.e. only one of
+ * them found a solution or one of the solutions is not valid. "--strategies"
+ * switches on elimination strategies of the techniques engine, "--branching"
+ * and "--value-order" choose its branching rules, as in Solver. "--stats json"
+ * prints the counters of every puzzle (see SolveStats) as one line of JSON,
+ * in input order, so expensive puzzles can be picked out. "--count" writes
+ * the number of solutions of every puzzle instead of a solution, "0", "1" or
+ * "2+", and stops searching a puzzle at its second solution; "--count-limit n"
+ * counts up to n solutions instead. Counting always uses the techniques engine.
+ * "--nogoods n" switches on nogood learning of the techniques engine with up
+ * to n nogoods per thread (see SudokuSolver.setNogoodLimit).
+ * "--cache n" keeps the solutions of the last n puzzles by their canonical
+ * form (see SolutionCache), so puzzles which were seen before, also relabeled
+ * or rearranged, are not solved again; the bitsliced engine doesn't use it.
+ *
+ * When all puzzles are done, the throughput and the solve time percentiles
+ * are printed to the console. With the bitsliced engine the solve time of a
+ * puzzle is its share of the singles over its group of 64 plus its own time
+ * in the scalar engine, if it stalled.
+ *
+ * @author devankarsann
+ */
+
+public class BatchSolver {
+
+	// number of puzzles per worker which may be read ahead of the output
+	static final int PUZZLES_IN_FLIGHT = 256;
+
+	/**
+	 * This is the main method for batch solving.
+	 *
+	 * @param args, input file, output file, optionally the number of worker
+	 * threads (the number of available processors by default) and the engine;
+	 * with an unknown option or a missing value the usage is printed
+	 *
+	 * @throws IOException
+	 * @throws InterruptedException
+	 * @throws IllegalArgumentException, for an unknown engine, stats format,
+	 * strategy or rule
+	 */
+	public static void main(String[] args) throws IOException, InterruptedException {
+		String[] files = new String[2];
+		int numFiles = 0;
+		int threads = 0;
+		String engine = "techniques";
+		String unknown = null;
+		final SolveOptions options = new SolveOptions();
+		for (int i = 0; i < args.length; i++) {
+			if (args[i].equals("--engine") && i + 1 < args.length)
+				engine = args[++i];
+			else if (args[i].equals("--strategies") && i + 1 < args.length)
+				options.strategies = args[++i];
+			else if (args[i].equals("--stats") && i + 1 < args.length) {
+				String stats = args[++i];
+				if (stats.equals("json") == false)
+					throw new IllegalArgumentException("unknown stats format: " + stats + " (expected json)");
+				options.statsJson = true;
+			} else if (args[i].equals("--branching") && i + 1 < args.length)
+				options.cellRule = args[++i];
+			else if (args[i].equals("--value-order") && i + 1 < args.length)
+				options.valueRule = args[++i];
+			else if (args[i].equals("--count"))
+				options.countLimit = Math.max(options.countLimit, 2);
+			else if (args[i].equals("--count-limit") && i + 1 < args.length)
+				options.countLimit = Integer.parseInt(args[++i]);
+			else if (args[i].equals("--cache") && i + 1 < args.length)
+				options.cache = new SolutionCache(Integer.parseInt(args[++i]));
+			else if (args[i].equals("--nogoods") && i + 1 < args.length)
+				options.nogoodLimit = Integer.parseInt(args[++i]);
+			else if (args[i].startsWith("--"))
+				unknown = args[i];
+			else if (numFiles < 2)
+				files[numFiles++] = args[i];
+			else if (threads == 0 && args[i].matches("[1-9][0-9]{0,3}"))
+				threads = Integer.parseInt(args[i]);
+			else
+				unknown = args[i];
+		}
+		if (threads == 0)
+			threads = Runtime.getRuntime().availableProcessors();
+		if (unknown != null)
+			System.out.println("unknown argument: " + unknown);
+		if (numFiles < 2 || unknown != null) {
+			System.out.println("usage: java BatchSolver <puzzle file> <output file> [threads] [--engine techniques|dlx|bitsliced|vector|compare] [--strategies all|none|names] [--branching rule] [--value-order rule] [--stats json] [--count] [--count-limit n] [--cache n] [--nogoods n]");
+			return;
+		}
+		final boolean compare = engine.equals("compare");
+		final String engineName = compare ? "techniques" : engine;
+		SudokuEngine.create(engineName);
+		options.check();
+
+		PuzzleReader reader = new PuzzleReader(files[0]);
+		Writer writer = new BufferedWriter(new FileWriter(files[1]), 1 << 16);
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+
+		// futures are kept in input order, the oldest one is written first; each
+		// one is a group of puzzles, one puzzle except for the bitsliced engine
+		final int groupSize = engineName.equals("bitsliced") && options.countLimit == 0 ? BitSlicedSolver.LANES : 1;
+		ArrayDeque<Future<Result[]>> inFlight = new ArrayDeque<Future<Result[]>>();
+		long[] latencies = new long[1024];
+		int numPuzzles = 0;
+		int numUnsolved = 0;
+		int numMismatches = 0;
+		int numUnique = 0;
+		int numMalformed = 0;
+		long start = System.nanoTime();
+
+		try {
+			int[][] group = new int[groupSize][];
+			int numInGroup = 0;
+			int[] cells;
+			while (true) {
+				Result malformed = null;
+				try {
+					cells = reader.next();
+				} catch (PuzzleReader.FormatException e) {
+					malformed = new Result();
+					malformed.malformed = true;
+					malformed.line = "error: " + e.getMessage();
+					cells = null;
+				}
+				boolean done = cells == null && malformed == null;
+				if (cells != null)
+					group[numInGroup++] = cells;
+				if (numInGroup == groupSize || (cells == null && numInGroup > 0)) {
+					final int[][] puzzles = Arrays.copyOf(group, numInGroup);
+					inFlight.add(pool.submit(new Callable<Result[]>() {
+						public Result[] call() throws IOException {
+							return solveGroup(puzzles, engineName, compare, options);
+						}
+					}));
+					numInGroup = 0;
+				}
+				// the error takes the place of the puzzle, after the puzzles before it
+				if (malformed != null)
+					inFlight.add(CompletableFuture.completedFuture(new Result[] { malformed }));
+				while (inFlight.size() >= (done ? 1 : threads * PUZZLES_IN_FLIGHT / groupSize)) {
+					for (Result result : inFlight.poll().get()) {
+						if (result.malformed) {
+							writeResult(writer, result);
+							numMalformed++;
+							continue;
+						}
+						latencies = record(latencies, numPuzzles, result);
+						numUnsolved += writeResult(writer, result);
+						numMismatches += result.mismatch ? 1 : 0;
+						numUnique += result.numSolutions == 1 ? 1 : 0;
+						numPuzzles++;
+					}
+				}
+				if (done)
+					break;
+			}
+		} catch (ExecutionException e) {
+			throw new IOException("a puzzle could not be solved", e.getCause());
+		} finally {
+			pool.shutdownNow();
+			reader.close();
+			writer.close();
+		}
+
+		long elapsed = System.nanoTime() - start;
+		printStatistics(numPuzzles, numUnsolved, elapsed, Arrays.copyOf(latencies, numPuzzles));
+		if (numMalformed > 0)
+			System.out.println(" malformed puzzles: " + numMalformed + " (see the \"error:\" lines of " + files[1] + ")");
+		if (compare)
+			System.out.println(" puzzles where techniques and dlx disagree: " + numMismatches);
+		if (options.countLimit > 0)
+			System.out.println(" puzzles with exactly one solution: " + numUnique);
+		if (options.cache != null)
+			System.out.println(options.cache.summary());
+	}
+
+	/**
+	 * This class holds the solution of one puzzle and how long it took to solve.
+	 */
+	static class Result {
+		String line;
+		boolean solved;
+		boolean mismatch;
+		// true if the puzzle couldn't be read, the line is the error
+		boolean malformed;
+		// number of solutions, only counted with "--count"
+		int numSolutions;
+		long nanos;
+		// counters as JSON, or null
+		String stats;
+	}
+
+	/**
+	 * This method solves a group of puzzles without writing any solution steps:
+	 * all at once with the bitsliced engine, one by one with the others. The
+	 * solve time of each puzzle of a bitsliced group is recorded by
+	 * BitSlicedSolver.solveAll.
+	 *
+	 * @param puzzles, values of each puzzle row by row, 0 for unknown values
+	 * @param engine, name of the engine
+	 * @param compare, true to solve every puzzle with the dlx engine as well
+	 * @param options, settings and engines to solve with
+	 * @return Result[], in the order of the puzzles
+	 * @throws IOException
+	 */
+	static Result[] solveGroup(int[][] puzzles, String engine, boolean compare, SolveOptions options) throws IOException {
+		Result[] results = new Result[puzzles.length];
+		if (engine.equals("bitsliced") == false || options.countLimit > 0) {
+			for (int p = 0; p < puzzles.length; p++)
+				results[p] = solvePuzzle(puzzles[p], engine.equals("bitsliced") ? "techniques" : engine, compare, options);
+			return results;
+		}
+		long[] nanos = new long[puzzles.length];
+		int[][] solutions = ((BitSlicedSolver) options.engineForCurrentThread("bitsliced")).solveAll(puzzles, 0, puzzles.length, nanos);
+		for (int p = 0; p < puzzles.length; p++) {
+			results[p] = new Result();
+			results[p].solved = solutions[p] != null;
+			results[p].line = results[p].solved ? PuzzleReader.toLine(solutions[p]) : "no solution";
+			results[p].nanos = nanos[p];
+		}
+		return results;
+	}
+
+	/**
+	 * This method solves one puzzle without writing any solution steps.
+	 *
+	 * @param cells, values of the puzzle row by row, 0 for unknown values
+	 * @param engine, name of the engine
+	 * @param compare, true to solve the puzzle with the dlx engine as well
+	 * @param options, settings and engines to solve with
+	 * @return Result
+	 * @throws IOException
+	 */
+	static Result solvePuzzle(int[] cells, String engine, boolean compare, SolveOptions options) throws IOException {
+		long start = System.nanoTime();
+		int dimension = (int) Math.round(Math.sqrt(cells.length));
+		if (options.countLimit > 0)
+			return countPuzzle(cells, dimension, start, options);
+		SudokuEngine solver = options.engineForCurrentThread(engine);
+		SolutionCache cache = options.cache;
+		Result result = new Result();
+		// the cache is skipped when comparing, both engines have to solve every puzzle
+		CanonicalForm form = cache != null && compare == false ? cache.canonicalize(cells, dimension) : null;
+		int[] solution = form != null ? cache.get(form) : null;
+		if (solution == SolutionCache.NO_SOLUTION) {
+			solution = null;
+		} else if (solution == null) {
+			solution = solver.solve(cells, dimension);
+			if (options.statsJson && solver instanceof SudokuSolver)
+				result.stats = ((SudokuSolver) solver).getStats().toJson();
+			if (form != null)
+				cache.put(form, solution);
+		}
+		if (compare) {
+			// puzzles with several solutions may be solved differently, so each
+			// solution is checked instead of comparing them value by value
+			int[] other = options.engineForCurrentThread("dlx").solve(cells, dimension);
+			result.mismatch = (solution == null) != (other == null)
+					|| (solution != null && !(SudokuEngine.isSolutionOf(cells, solution, dimension)
+							&& SudokuEngine.isSolutionOf(cells, other, dimension)));
+		}
+		result.solved = solution != null;
+		result.line = result.solved ? PuzzleReader.toLine(solution) : "no solution";
+		result.nanos = System.nanoTime() - start;
+		return result;
+	}
+
+	/**
+	 * This method counts the solutions of one puzzle with the techniques engine.
+	 *
+	 * @param cells, values of the puzzle row by row, 0 for unknown values
+	 * @param dimension, number of rows and columns
+	 * @param start, System.nanoTime() when the puzzle was started
+	 * @param options, settings and engines to count with
+	 * @return Result, its line is the number of solutions, e.g. "2+"
+	 * @throws IOException
+	 */
+	static Result countPuzzle(int[] cells, int dimension, long start, SolveOptions options) throws IOException {
+		SudokuSolver solver = (SudokuSolver) options.engineForCurrentThread("techniques");
+		Result result = new Result();
+		result.numSolutions = solver.countSolutions(cells, dimension, options.countLimit);
+		if (options.statsJson)
+			result.stats = solver.getStats().toJson();
+		result.solved = result.numSolutions > 0;
+		result.line = result.numSolutions >= options.countLimit ? result.numSolutions + "+" : String.valueOf(result.numSolutions);
+		result.nanos = System.nanoTime() - start;
+		return result;
+	}
+
+	/**
+	 * This method writes one solution line and returns 1 if the puzzle wasn't
+	 * solved, 0 otherwise.
+	 *
+	 * @return int
+	 * @throws IOException
+	 */
+	private static int writeResult(Writer writer, Result result) throws IOException {
+		if (result.stats != null)
+			System.out.println(result.stats);
+		writer.write(result.line);
+		writer.write('\n');
+		return result.solved ? 0 : 1;
+	}
+
+	/**
+	 * This method stores the solve time of a puzzle, growing the array if needed.
+	 *
+	 * @return long[], the array holding the solve times
+	 */
+	private static long[] record(long[] latencies, int index, Result result) {
+		if (index == latencies.length)
+			latencies = Arrays.copyOf(latencies, index * 2);
+		latencies[index] = result.nanos;
+		return latencies;
+	}
+
+	/**
+	 * This method prints the throughput and the solve time percentiles.
+	 *
+	 * @param numPuzzles, number of puzzles read
+	 * @param numUnsolved, number of puzzles without a solution
+	 * @param elapsed, wall clock time of the whole batch in nanoseconds
+	 * @param latencies, solve time of every puzzle in nanoseconds
+	 */
+	static void printStatistics(int numPuzzles, int numUnsolved, long elapsed, long[] latencies) {
+		Arrays.sort(latencies);
+		double seconds = elapsed / 1e9;
+		System.out.println("\n puzzles: " + numPuzzles + " (" + numUnsolved + " without a solution)");
+		System.out.printf(" time: %.3f s%n", seconds);
+		System.out.printf(" throughput: %.1f puzzles/s%n", numPuzzles / seconds);
+		if (numPuzzles > 0) {
+			System.out.printf(" solve time p50: %.3f ms, p90: %.3f ms, p99: %.3f ms, max: %.3f ms%n",
+					percentile(latencies, 50) / 1e6, percentile(latencies, 90) / 1e6,
+					percentile(latencies, 99) / 1e6, latencies[latencies.length - 1] / 1e6);
+		}
+	}
+
+	/**
+	 * This method returns a percentile of sorted values (nearest rank).
+	 *
+	 * @return long
+	 */
+	static long percentile(long[] sorted, int percent) {
+		int rank = (int) Math.ceil(percent / 100.0 * sorted.length);
+		return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))];
+	}
+}
@@ -0,0 +1,106 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class compares solving 9x9 puzzles one at a time with SudokuSolver and
+ * 64 at a time with BitSlicedSolver. The puzzles of a file are solved a few
+ * times by each engine, the first half of the repetitions to let the JVM
+ * compile the solving methods, and the best throughput of the rest is
+ * printed with the gain of the bit-sliced engine, and how many puzzles the
+ * singles solved on their own and how many stalled and were finished by the
+ * scalar engine. Every solution is checked.
+ *
+ * Puzzles which need no guesses (e.g. "--grade easy" or "--grade medium" of
+ * PuzzleGenerator) gain the most, since only stalled puzzles are solved one
+ * at a time.
+ *
+ * $ java PuzzleGenerator easy.txt --count 10000 --grade easy
+ * $ java BitSlicedBenchmark easy.txt
+ *
+ * @author devankarsann
+ */
+
+public class BitSlicedBenchmark {
+
+	/**
+	 * This is the main method of the benchmark.
+	 *
+	 * @param args, the puzzle file and optionally "--reps n" (10 by default)
+	 * @throws IOException
+	 */
+	public static void main(String[] args) throws IOException {
+		int repetitions = 10;
+		String fileName = null;
+		for (int i = 0; i < args.length; i++) {
+			if (args[i].equals("--reps") && i + 1 < args.length)
+				repetitions = Integer.parseInt(args[++i]);
+			else
+				fileName = args[i];
+		}
+		if (fileName == null) {
+			System.out.println("usage: java BitSlicedBenchmark <puzzle file> [--reps n]");
+			return;
+		}
+
+		List<int[]> list = new ArrayList<int[]>();
+		PuzzleReader reader = new PuzzleReader(fileName);
+		int[] cells;
+		while ((cells = reader.next()) != null) {
+			if (cells.length == 81)
+				list.add(cells);
+		}
+		reader.close();
+		int[][] puzzles = list.toArray(new int[0][]);
+		if (puzzles.length == 0) {
+			System.out.println(" " + fileName + ": no 9x9 puzzle found");
+			return;
+		}
+
+		SudokuSolver scalar = new SudokuSolver();
+		BitSlicedSolver sliced = new BitSlicedSolver(new SudokuSolver());
+		long bestScalar = Long.MAX_VALUE;
+		long bestSliced = Long.MAX_VALUE;
+		int numWrong = 0;
+		for (int r = 0; r < 2 * repetitions; r++) {
+			long start = System.nanoTime();
+			for (int[] puzzle : puzzles)
+				numWrong += check(puzzle, scalar.solve(puzzle, 9));
+			long elapsed = System.nanoTime() - start;
+			if (r >= repetitions)
+				bestScalar = Math.min(bestScalar, elapsed);
+
+			start = System.nanoTime();
+			int[][] solutions = sliced.solveAll(puzzles, 0, puzzles.length);
+			elapsed = System.nanoTime() - start;
+			for (int p = 0; p < puzzles.length; p++)
+				numWrong += check(puzzles[p], solutions[p]);
+			if (r >= repetitions)
+				bestSliced = Math.min(bestSliced, elapsed);
+		}
+
+		double scalarRate = puzzles.length / (bestScalar / 1e9);
+		double slicedRate = puzzles.length / (bestSliced / 1e9);
+		long numRuns = 2L * repetitions;
+		System.out.printf(" %-34s %14s%n", "engine", "puzzles/s");
+		System.out.printf(" %-34s %14.0f%n", "techniques, one at a time", scalarRate);
+		System.out.printf(" %-34s %14.0f%n", "bitsliced, 64 lanes", slicedRate);
+		System.out.printf("%n gain: %.2fx%n", slicedRate / scalarRate);
+		System.out.println(" puzzles: " + puzzles.length + ", solved by the singles: " + sliced.getNumSolvedByLanes() / numRuns
+				+ ", stalled: " + sliced.getNumStalled() / numRuns + ", no solution: " + sliced.getNumContradicted() / numRuns);
+		System.out.println(" wrong answers: " + numWrong);
+	}
+
+	/**
+	 * This method returns 1 if an answer is wrong: not a solution of the
+	 * puzzle, or no solution though the puzzle has one.
+	 *
+	 * @return int
+	 * @throws IOException
+	 */
+	private static int check(int[] puzzle, int[] solution) throws IOException {
+		if (solution == null)
+			return new DlxSolver().solve(puzzle, 9) == null ? 0 : 1;
+		return SudokuEngine.isSolutionOf(puzzle, solution, 9) ? 0 : 1;
+	}
+}
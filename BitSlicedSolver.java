@@ -0,0 +1,333 @@
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * This is the bit-sliced engine of my Sudoku solving program. It works on up
+ * to 64 puzzles of 9x9 at once: bit 'lane' of candidates[cell * 9 + value - 1]
+ * is set if the value is still possible in the Cell of puzzle number 'lane'.
+ * One long operation then updates a Cell of all 64 puzzles, without a branch
+ * per puzzle and without Cell objects.
+ *
+ * Both single techniques run on all lanes at once:
+ *
+ * one possible value (naked single): counting the possible values of a Cell
+ * with two bit masks, 'one' (at least one) and 'two' (at least two), gives
+ * the lanes where exactly one is left; that value is removed from the
+ * neighboring Cells of those lanes
+ *
+ * one possible Cell (hidden single): counting the Cells of a unit where a
+ * value is possible the same way gives the lanes where exactly one Cell is
+ * left, and every other value is removed from that Cell
+ *
+ * A lane without any possible value in a Cell, or without any Cell for a
+ * value in a unit, has no solution. When the singles set nothing more, the
+ * lanes which are not solved yet are stalled: their grids, with every value
+ * found so far given, are handed to a scalar engine (SudokuSolver by default),
+ * which guesses. Puzzles of other dimensions go to the scalar engine directly.
+ *
+ * @author devankarsann
+ */
+
+public class BitSlicedSolver implements SudokuEngine {
+
+	static final int LANES = 64;
+	private static final int DIMENSION = 9;
+	private static final int NUM_CELLS = DIMENSION * DIMENSION;
+
+	private final Topology topology = Topology.forDimension(DIMENSION);
+	private final SudokuEngine fallback;
+	// bit 'lane' is set if value d + 1 is possible in Cell c of that lane, index c * 9 + d
+	private final long[] candidates = new long[NUM_CELLS * DIMENSION];
+	// bit 'lane' is set once the value of Cell c was removed from its neighboring Cells
+	private final long[] placed = new long[NUM_CELLS];
+	// lanes solved by the singles, stalled and handed to the scalar engine, and without a solution
+	private long numSolvedByLanes;
+	private long numStalled;
+	private long numContradicted;
+
+	/**
+	 * This is the constructor method for a BitSlicedSolver object which hands
+	 * stalled puzzles to a new SudokuSolver.
+	 */
+	public BitSlicedSolver() {
+		this(new SudokuSolver());
+	}
+
+	/**
+	 * This is the constructor method for a BitSlicedSolver object.
+	 *
+	 * @param fallback, engine for stalled puzzles and puzzles other than 9x9
+	 */
+	public BitSlicedSolver(SudokuEngine fallback) {
+		this.fallback = fallback;
+	}
+
+	/**
+	 * This method solves one puzzle in a lane of its own. Solving many puzzles
+	 * with solveAll is much faster.
+	 *
+	 * @param cells, dimension * dimension values row by row, 0 for unknown values
+	 * @param dimension, number of rows and columns
+	 * @return int[]
+	 * @throws IOException
+	 */
+	public int[] solve(int[] cells, int dimension) throws IOException {
+		SudokuEngine.checkPuzzle(cells, dimension);
+		return solveAll(new int[][] { cells }, 0, 1)[0];
+	}
+
+	/**
+	 * This method solves puzzles 'from' to 'from + count - 1', 64 at a time.
+	 *
+	 * @param puzzles, values of each puzzle row by row, 0 for unknown values
+	 * @param from, first puzzle to solve
+	 * @param count, number of puzzles to solve
+	 * @return int[][], the solution of each puzzle, null if it has none
+	 * @throws IOException
+	 */
+	public int[][] solveAll(int[][] puzzles, int from, int count) throws IOException {
+		return solveAll(puzzles, from, count, null);
+	}
+
+	/**
+	 * This method solves puzzles 'from' to 'from + count - 1', 64 at a time,
+	 * and records the solve time of each puzzle: its share of the pass of the
+	 * singles over its 64 lanes, plus the time the scalar engine took for it
+	 * if it stalled.
+	 *
+	 * @param puzzles, values of each puzzle row by row, 0 for unknown values
+	 * @param from, first puzzle to solve
+	 * @param count, number of puzzles to solve
+	 * @param nanos, receives the solve time of each puzzle in nanoseconds, or null
+	 * @return int[][], the solution of each puzzle, null if it has none
+	 * @throws IOException
+	 */
+	public int[][] solveAll(int[][] puzzles, int from, int count, long[] nanos) throws IOException {
+		int[][] solutions = new int[count][];
+		int[] lanePuzzle = new int[LANES];
+		int numLanes = 0;
+		for (int p = 0; p < count; p++) {
+			int[] cells = puzzles[from + p];
+			if (cells.length != NUM_CELLS) {
+				int dimension = (int) Math.round(Math.sqrt(cells.length));
+				long start = nanos != null ? System.nanoTime() : 0;
+				solutions[p] = fallback.solve(cells, dimension);
+				if (nanos != null)
+					nanos[p] = System.nanoTime() - start;
+				continue;
+			}
+			SudokuEngine.checkPuzzle(cells, 9);
+			lanePuzzle[numLanes++] = p;
+			if (numLanes == LANES) {
+				solveLanes(puzzles, from, lanePuzzle, numLanes, solutions, nanos);
+				numLanes = 0;
+			}
+		}
+		if (numLanes > 0)
+			solveLanes(puzzles, from, lanePuzzle, numLanes, solutions, nanos);
+		return solutions;
+	}
+
+	/**
+	 * This method returns the number of puzzles solved by the singles alone.
+	 *
+	 * @return long
+	 */
+	public long getNumSolvedByLanes() {
+		return numSolvedByLanes;
+	}
+
+	/**
+	 * This method returns the number of puzzles which stalled and were handed
+	 * to the scalar engine.
+	 *
+	 * @return long
+	 */
+	public long getNumStalled() {
+		return numStalled;
+	}
+
+	/**
+	 * This method returns the number of puzzles found to have no solution
+	 * by the singles.
+	 *
+	 * @return long
+	 */
+	public long getNumContradicted() {
+		return numContradicted;
+	}
+
+	/**
+	 * This method loads up to 64 puzzles of 9x9 into the lanes, runs the
+	 * singles on all of them and finishes the stalled lanes with the scalar
+	 * engine.
+	 *
+	 * @param puzzles, values of each puzzle
+	 * @param from, offset of the puzzle numbers in 'puzzles'
+	 * @param lanePuzzle, puzzle number of each lane
+	 * @param numLanes, number of lanes used
+	 * @param solutions, receives the solution of each puzzle
+	 * @param nanos, receives the solve time of each puzzle, or null
+	 * @throws IOException
+	 */
+	private void solveLanes(int[][] puzzles, int from, int[] lanePuzzle, int numLanes, int[][] solutions, long[] nanos) throws IOException {
+		long start = nanos != null ? System.nanoTime() : 0;
+		long active = numLanes == LANES ? -1L : (1L << numLanes) - 1;
+		long dead = load(puzzles, from, lanePuzzle, numLanes);
+		dead |= propagate(active & ~dead);
+
+		long solved = active & ~dead;
+		for (int c = 0; c < NUM_CELLS; c++)
+			solved &= placed[c];
+		// the pass of the singles is shared by all lanes
+		long share = nanos != null ? (System.nanoTime() - start) / numLanes : 0;
+		for (int lane = 0; lane < numLanes; lane++) {
+			long bit = 1L << lane;
+			int p = lanePuzzle[lane];
+			long laneStart = nanos != null ? System.nanoTime() : 0;
+			if ((dead & bit) != 0) {
+				numContradicted++;
+				solutions[p] = null;
+			} else if ((solved & bit) != 0) {
+				numSolvedByLanes++;
+				solutions[p] = extract(lane);
+			} else {
+				numStalled++;
+				solutions[p] = fallback.solve(extract(lane), DIMENSION);
+			}
+			if (nanos != null)
+				nanos[p] = share + System.nanoTime() - laneStart;
+		}
+	}
+
+	/**
+	 * This method sets the possible values of every lane from its givens.
+	 *
+	 * @return long, lanes with a value other than 0 to 9
+	 */
+	private long load(int[][] puzzles, int from, int[] lanePuzzle, int numLanes) {
+		long all = numLanes == LANES ? -1L : (1L << numLanes) - 1;
+		long invalid = 0;
+		Arrays.fill(placed, 0);
+		for (int c = 0; c < NUM_CELLS; c++) {
+			int base = c * DIMENSION;
+			long empty = all;
+			for (int d = 0; d < DIMENSION; d++)
+				candidates[base + d] = 0;
+			for (int lane = 0; lane < numLanes; lane++) {
+				int value = puzzles[from + lanePuzzle[lane]][c];
+				if (value == 0)
+					continue;
+				empty &= ~(1L << lane);
+				if (value < 0 || value > DIMENSION)
+					invalid |= 1L << lane;
+				else
+					candidates[base + value - 1] |= 1L << lane;
+			}
+			for (int d = 0; d < DIMENSION; d++)
+				candidates[base + d] |= empty;
+		}
+		return invalid;
+	}
+
+	/**
+	 * This method runs both singles on every active lane until they set
+	 * nothing more or every lane is solved or without a solution.
+	 *
+	 * @param active, lanes to work on
+	 * @return long, lanes found to have no solution
+	 */
+	private long propagate(long active) {
+		int[] peers = topology.peers;
+		int numPeers = topology.numPeers;
+		int[] unitCells = topology.unitCells;
+		long dead = 0;
+		boolean changed = true;
+		while (changed) {
+			changed = false;
+			long live = active & ~dead;
+			long unsolved = 0;
+
+			// one possible value: the value is removed from the neighboring Cells
+			for (int c = 0; c < NUM_CELLS; c++) {
+				int base = c * DIMENSION;
+				long one = 0;
+				long two = 0;
+				for (int d = 0; d < DIMENSION; d++) {
+					long x = candidates[base + d];
+					two |= one & x;
+					one |= x;
+				}
+				dead |= live & ~one;
+				long single = one & ~two & ~placed[c] & live;
+				if (single != 0) {
+					placed[c] |= single;
+					changed = true;
+					for (int d = 0; d < DIMENSION; d++) {
+						long lanes = single & candidates[base + d];
+						if (lanes == 0)
+							continue;
+						for (int k = 0; k < numPeers; k++)
+							candidates[peers[c * numPeers + k] * DIMENSION + d] &= ~lanes;
+					}
+				}
+				unsolved |= live & ~placed[c];
+			}
+			if ((unsolved & ~dead) == 0)
+				break;
+
+			// one possible Cell: every other value is removed from that Cell
+			live = active & ~dead;
+			for (int u = 0; u < topology.numUnits; u++) {
+				for (int d = 0; d < DIMENSION; d++) {
+					long one = 0;
+					long two = 0;
+					for (int k = 0; k < DIMENSION; k++) {
+						long x = candidates[unitCells[u * DIMENSION + k] * DIMENSION + d];
+						two |= one & x;
+						one |= x;
+					}
+					dead |= live & ~one;
+					long once = one & ~two & live;
+					if (once == 0)
+						continue;
+					for (int k = 0; k < DIMENSION; k++) {
+						int base = unitCells[u * DIMENSION + k] * DIMENSION;
+						long hit = once & candidates[base + d] & ~placed[base / DIMENSION];
+						if (hit == 0)
+							continue;
+						for (int e = 0; e < DIMENSION; e++) {
+							if (e != d && (candidates[base + e] & hit) != 0) {
+								candidates[base + e] &= ~hit;
+								changed = true;
+							}
+						}
+					}
+				}
+			}
+		}
+		return dead;
+	}
+
+	/**
+	 * This method returns the values of one lane, 0 for Cells with more than
+	 * one possible value.
+	 *
+	 * @param lane, number of the lane
+	 * @return int[]
+	 */
+	private int[] extract(int lane) {
+		int[] values = new int[NUM_CELLS];
+		for (int c = 0; c < NUM_CELLS; c++) {
+			if ((placed[c] >>> lane & 1) == 0)
+				continue;
+			for (int d = 0; d < DIMENSION; d++) {
+				if ((candidates[c * DIMENSION + d] >>> lane & 1) != 0) {
+					values[c] = d + 1;
+					break;
+				}
+			}
+		}
+		return values;
+	}
+}
@@ -0,0 +1,430 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+/**
+ * This class is a long-lived board for game frontends: the player places and
+ * erases values one at a time, and after every move the possible values of
+ * every Cell, a hint and whether the board can still be solved are available
+ * right away. Nothing is rebuilt for a move; only the row, column and
+ * subgrid of the changed Cell are updated, so place and erase take well
+ * under a microsecond on a 9x9 board.
+ *
+ * definition of 'blocked': blocked[cell * (dimension + 1) + value] is the number
+ * of neighboring Cells set to the value. A value is possible in an unknown
+ * Cell while it isn't blocked there, so erasing a value only counts down the
+ * Cells it blocked and nothing has to be recomputed.
+ *
+ * Whether the board can still be solved is checked against a solution which
+ * agrees with every placed value. As long as the player only places values of
+ * that solution, the answer is known without a search; otherwise the board
+ * is solved once with SudokuSolver to find another solution, or to learn
+ * that there is none. A BoardSession is not thread-safe.
+ *
+ *   BoardSession session = new BoardSession(cells, 9);
+ *   session.place(0, 2, 4);
+ *   BoardSession.Hint hint = session.nextHint();
+ *
+ * @author devankarsann
+ */
+
+public class BoardSession {
+
+	// techniques named by the hints
+	static final String NAKED_SINGLE = "naked single";
+	static final String HIDDEN_SINGLE = "hidden single";
+	// no single is left, the value is taken from the solution
+	static final String SOLUTION = "solution";
+	// a placed value which keeps the board from being solved, and its right value
+	static final String MISTAKE = "mistake";
+	static final String[] UNIT_NAMES = { "row", "column", "subgrid" };
+
+	/**
+	 * This class is one hint: a Cell, its value and the technique which finds it.
+	 */
+	public static final class Hint {
+		private final int row;
+		private final int col;
+		private final int value;
+		private final String technique;
+		private final String unit;
+
+		Hint(int row, int col, int value, String technique, String unit) {
+			this.row = row;
+			this.col = col;
+			this.value = value;
+			this.technique = technique;
+			this.unit = unit;
+		}
+
+		public int getRow() {
+			return row;
+		}
+
+		public int getCol() {
+			return col;
+		}
+
+		public int getValue() {
+			return value;
+		}
+
+		/**
+		 * This method returns the technique: "naked single", "hidden single",
+		 * "solution" or "mistake".
+		 *
+		 * @return String
+		 */
+		public String getTechnique() {
+			return technique;
+		}
+
+		/**
+		 * This method returns the unit of a hidden single, "row", "column" or
+		 * "subgrid", null for the other techniques.
+		 *
+		 * @return String
+		 */
+		public String getUnit() {
+			return unit;
+		}
+
+		public String toString() {
+			return technique + (unit == null ? "" : " in its " + unit) + ": row " + row + ", col " + col + " = " + value;
+		}
+	}
+
+	private final int dimension;
+	private final Topology topology;
+	private final int[] values;
+	private final boolean[] given;
+	private final int[] blocked;
+	// number of possible values of each unknown Cell, not kept up to date for set Cells
+	private final int[] numPossible;
+	// candidateCounts[unit * (dimension + 1) + value] is the number of unknown
+	// Cells of a Topology unit where the value is possible, placedCounts the
+	// number of Cells of the unit set to it
+	private final int[] candidateCounts;
+	private final int[] placedCounts;
+	// number of unit and value pairs set more than once
+	private int numConflicts = 0;
+	private int numSet = 0;
+	// the solution of the givens alone, null if there is none
+	private final int[] givensSolution;
+	// a solution which agrees with every placed value when numMismatches is 0
+	private int[] solution;
+	private int numMismatches = 0;
+	// number of moves so far, and the move count at which the board was last
+	// found to have no solution
+	private long numMoves = 0;
+	private long unsolvableAt = -1;
+	private final SudokuSolver solver = new SudokuSolver();
+
+	/**
+	 * This is the constructor method for a BoardSession object. The givens
+	 * can't be erased or replaced.
+	 *
+	 * @param cells, dimension * dimension values row by row, 0 for unknown values
+	 * @param dimension, number of rows and columns
+	 */
+	public BoardSession(int[] cells, int dimension) {
+		if (cells.length != dimension * dimension)
+			throw new IllegalArgumentException(cells.length + " values given for a " + dimension + "x" + dimension + " grid");
+		this.dimension = dimension;
+		topology = Topology.forDimension(dimension);
+		values = new int[cells.length];
+		given = new boolean[cells.length];
+		blocked = new int[cells.length * (dimension + 1)];
+		numPossible = new int[cells.length];
+		Arrays.fill(numPossible, dimension);
+		candidateCounts = new int[topology.numUnits * (dimension + 1)];
+		placedCounts = new int[candidateCounts.length];
+		for (int unit = 0; unit < topology.numUnits; unit++)
+			Arrays.fill(candidateCounts, unit * (dimension + 1) + 1, (unit + 1) * (dimension + 1), dimension);
+		for (int index = 0; index < cells.length; index++) {
+			if (cells[index] < 0 || cells[index] > dimension)
+				throw new IllegalArgumentException("row " + index / dimension + ", col " + index % dimension + ": " + cells[index] + " is not a value of a " + dimension + "x" + dimension + " grid");
+			if (cells[index] != 0) {
+				set(index, cells[index]);
+				given[index] = true;
+			}
+		}
+		givensSolution = numConflicts > 0 ? null : solve();
+		solution = givensSolution;
+		if (solution == null)
+			unsolvableAt = 0;
+	}
+
+	/**
+	 * This method places a value in a Cell which isn't a given, in place of
+	 * the value it had. A value which is set in the same row, column or
+	 * subgrid already is placed too; the board then has a conflict and
+	 * can't be solved until one of them is erased.
+	 *
+	 * @param row, row index
+	 * @param col, column index
+	 * @param value, 1 to dimension
+	 */
+	public void place(int row, int col, int value) {
+		int index = indexOf(row, col);
+		if (value < 1 || value > dimension)
+			throw new IllegalArgumentException("" + value + " is not a value of a " + dimension + "x" + dimension + " grid");
+		if (given[index])
+			throw new IllegalArgumentException("row " + row + ", col " + col + " is a given");
+		if (values[index] == value)
+			return;
+		if (values[index] != 0)
+			clear(index);
+		set(index, value);
+		numMoves++;
+	}
+
+	/**
+	 * This method erases the value of a Cell which isn't a given, and gives
+	 * back the possible values it blocked.
+	 *
+	 * @param row, row index
+	 * @param col, column index
+	 * @return boolean, true if the Cell had a value
+	 */
+	public boolean erase(int row, int col) {
+		int index = indexOf(row, col);
+		if (given[index])
+			throw new IllegalArgumentException("row " + row + ", col " + col + " is a given");
+		if (values[index] == 0)
+			return false;
+		clear(index);
+		numMoves++;
+		return true;
+	}
+
+	/**
+	 * This method returns the possible values of a Cell, i.e. the values
+	 * which are not set in its row, column or subgrid, in ascending order;
+	 * none if the Cell has a value.
+	 *
+	 * @param row, row index
+	 * @param col, column index
+	 * @return int[]
+	 */
+	public int[] candidates(int row, int col) {
+		int index = indexOf(row, col);
+		if (values[index] != 0)
+			return new int[0];
+		int[] possible = new int[numPossible[index]];
+		int n = 0;
+		for (int v = 1; v <= dimension; v++) {
+			if (blocked[index * (dimension + 1) + v] == 0)
+				possible[n++] = v;
+		}
+		return possible;
+	}
+
+	/**
+	 * This method returns the value of a Cell, 0 if it is unknown.
+	 *
+	 * @return int
+	 */
+	public int getValue(int row, int col) {
+		return values[indexOf(row, col)];
+	}
+
+	/**
+	 * This method returns true if the Cell holds a given.
+	 *
+	 * @return boolean
+	 */
+	public boolean isGiven(int row, int col) {
+		return given[indexOf(row, col)];
+	}
+
+	/**
+	 * This method returns true if every Cell has a value and no value is set
+	 * twice in a row, column or subgrid.
+	 *
+	 * @return boolean
+	 */
+	public boolean isSolved() {
+		return numSet == values.length && numConflicts == 0;
+	}
+
+	/**
+	 * This method returns true if the board can still be solved without
+	 * erasing anything. It is answered without a search while the placed
+	 * values agree with the last solution found.
+	 *
+	 * @return boolean
+	 */
+	public boolean isStillSolvable() {
+		if (numConflicts > 0 || givensSolution == null)
+			return false;
+		if (numMismatches == 0)
+			return true;
+		if (unsolvableAt == numMoves)
+			return false;
+		int[] found = solve();
+		if (found == null) {
+			unsolvableAt = numMoves;
+			return false;
+		}
+		// every placed value is part of the new solution
+		solution = found;
+		numMismatches = 0;
+		return true;
+	}
+
+	/**
+	 * This method returns a hint for the next move, without making it. If
+	 * the board can't be solved, the hint is a placed value which differs from
+	 * the solution of the givens, with its right value ("mistake").
+	 * Otherwise it is a Cell with one possible value ("naked single"), else
+	 * the only Cell of a row, column or subgrid where a value is possible
+	 * ("hidden single"), else the Cell with the fewest possible values and
+	 * its value in the solution ("solution").
+	 *
+	 * @return Hint, null if the board is full or the givens have no solution
+	 */
+	public Hint nextHint() {
+		if (isStillSolvable() == false) {
+			if (givensSolution == null)
+				return null;
+			for (int index = 0; index < values.length; index++) {
+				if (values[index] != 0 && values[index] != givensSolution[index])
+					return hint(index, givensSolution[index], MISTAKE, null);
+			}
+			return null;
+		}
+		if (numSet == values.length)
+			return null;
+		// part 2 of SudokuSolver: a Cell with one possible value
+		int fewest = -1;
+		for (int index = 0; index < values.length; index++) {
+			if (values[index] != 0)
+				continue;
+			if (numPossible[index] == 1)
+				return hint(index, solution[index], NAKED_SINGLE, null);
+			if (fewest < 0 || numPossible[index] < numPossible[fewest])
+				fewest = index;
+		}
+		// part 3: the only Cell of a unit where a value is possible
+		for (int unit = 0; unit < topology.numUnits; unit++) {
+			for (int value = 1; value <= dimension; value++) {
+				int entry = unit * (dimension + 1) + value;
+				if (candidateCounts[entry] != 1 || placedCounts[entry] != 0)
+					continue;
+				for (int n = 0; n < dimension; n++) {
+					int index = topology.unitCells[unit * dimension + n];
+					if (values[index] == 0 && blocked[index * (dimension + 1) + value] == 0)
+						return hint(index, value, HIDDEN_SINGLE, UNIT_NAMES[unit / dimension]);
+				}
+			}
+		}
+		return hint(fewest, solution[fewest], SOLUTION, null);
+	}
+
+	/**
+	 * This method returns a Hint for a Cell.
+	 *
+	 * @return Hint
+	 */
+	private Hint hint(int index, int value, String technique, String unit) {
+		return new Hint(index / dimension, index % dimension, value, technique, unit);
+	}
+
+	/**
+	 * This method returns the index of a Cell, row * dimension + column.
+	 *
+	 * @return int
+	 */
+	private int indexOf(int row, int col) {
+		if (row < 0 || row >= dimension || col < 0 || col >= dimension)
+			throw new IllegalArgumentException("row " + row + ", col " + col + " is not on a " + dimension + "x" + dimension + " grid");
+		return row * dimension + col;
+	}
+
+	/**
+	 * This method sets the value of an unknown Cell: its possible values are
+	 * no longer counted, and the value is blocked in every neighboring Cell.
+	 *
+	 * @param index, index of the Cell
+	 * @param value to be set
+	 */
+	private void set(int index, int value) {
+		for (int v = 1; v <= dimension; v++) {
+			if (blocked[index * (dimension + 1) + v] == 0)
+				countCandidate(index, v, -1);
+		}
+		values[index] = value;
+		numSet++;
+		for (int k = index * 3; k < index * 3 + 3; k++) {
+			if (++placedCounts[topology.cellUnits[k] * (dimension + 1) + value] == 2)
+				numConflicts++;
+		}
+		int end = (index + 1) * topology.numPeers;
+		for (int p = index * topology.numPeers; p < end; p++) {
+			int peer = topology.peers[p];
+			if (blocked[peer * (dimension + 1) + value]++ == 0 && values[peer] == 0) {
+				numPossible[peer]--;
+				countCandidate(peer, value, -1);
+			}
+		}
+		if (solution != null && solution[index] != value)
+			numMismatches++;
+	}
+
+	/**
+	 * This method erases the value of a Cell, the reverse of set.
+	 *
+	 * @param index, index of the Cell
+	 */
+	private void clear(int index) {
+		int value = values[index];
+		int end = (index + 1) * topology.numPeers;
+		for (int p = index * topology.numPeers; p < end; p++) {
+			int peer = topology.peers[p];
+			if (--blocked[peer * (dimension + 1) + value] == 0 && values[peer] == 0) {
+				numPossible[peer]++;
+				countCandidate(peer, value, 1);
+			}
+		}
+		for (int k = index * 3; k < index * 3 + 3; k++) {
+			if (--placedCounts[topology.cellUnits[k] * (dimension + 1) + value] == 1)
+				numConflicts--;
+		}
+		values[index] = 0;
+		numSet--;
+		// the neighboring Cells kept blocking values while this one was set
+		numPossible[index] = 0;
+		for (int v = 1; v <= dimension; v++) {
+			if (blocked[index * (dimension + 1) + v] == 0) {
+				numPossible[index]++;
+				countCandidate(index, v, 1);
+			}
+		}
+		if (solution != null && solution[index] != value)
+			numMismatches--;
+	}
+
+	/**
+	 * This method adds (change = 1) or removes (change = -1) a possible value
+	 * of a Cell from the counters of its row, column and subgrid.
+	 */
+	private void countCandidate(int index, int value, int change) {
+		for (int k = index * 3; k < index * 3 + 3; k++)
+			candidateCounts[topology.cellUnits[k] * (dimension + 1) + value] += change;
+	}
+
+	/**
+	 * This method solves the board as it is.
+	 *
+	 * @return int[], a solution, or null if there is none
+	 */
+	private int[] solve() {
+		try {
+			return solver.solve(values, dimension);
+		} catch (IOException e) {
+			// no solution steps are written, so this doesn't happen
+			throw new UncheckedIOException(e);
+		}
+	}
+}
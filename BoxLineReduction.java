@@ -0,0 +1,40 @@
+/**
+ * This is the box/line reduction strategy. If a value is possible only within
+ * one subgrid in a row (or column), the subgrid's copy of the value has to be
+ * in that row, so it is removed from the other Cells of the subgrid.
+ *
+ * @author devankarsann
+ */
+
+public class BoxLineReduction implements EliminationStrategy {
+
+	public String getName() {
+		return "box-line";
+	}
+
+	public boolean apply(SudokuSolver solver) {
+		int dimension = solver.dimension;
+		Topology topology = solver.topology;
+		boolean removed = false;
+		for (int unit = 0; unit < 2 * dimension; unit++) {
+			for (int value = 1; value <= dimension; value++) {
+				if (solver.numPlaced(unit, value) > 0)
+					continue;
+				long positions = solver.positionsOf(unit, value);
+				if (Long.bitCount(positions) < 2)
+					continue;
+				int box = -1;
+				for (long rest = positions; rest != 0; rest &= rest - 1) {
+					int cell = topology.unitCells[unit * dimension + Long.numberOfTrailingZeros(rest)];
+					if (box == -1)
+						box = topology.boxOf[cell];
+					else if (box != topology.boxOf[cell])
+						box = -2;
+				}
+				if (box >= 0 && solver.eliminateOutside(2 * dimension + box, unit, value))
+					removed = true;
+			}
+		}
+		return removed;
+	}
+}
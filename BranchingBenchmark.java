@@ -0,0 +1,62 @@
+import java.io.IOException;
+
+/**
+ * This class compares the branching rules of SudokuSolver. Every sample
+ * puzzle is solved with every combination of a Cell rule and a value rule,
+ * and the number of guesses (search nodes) and the best solve time are
+ * printed for each combination.
+ *
+ * @author devankarsann
+ */
+
+public class BranchingBenchmark {
+
+	/**
+	 * This is the main method of the benchmark.
+	 *
+	 * @param args, optionally "--reps n" (5 by default), "--strategies list"
+	 * (see EliminationStrategy, none by default) and the puzzle files, the
+	 * samples of GridSizeBenchmark by default
+	 * @throws IOException
+	 */
+	public static void main(String[] args) throws IOException {
+		int repetitions = 5;
+		String strategies = "none";
+		String[] files = new String[args.length];
+		int numFiles = 0;
+		for (int i = 0; i < args.length; i++) {
+			if (args[i].equals("--reps") && i + 1 < args.length)
+				repetitions = Integer.parseInt(args[++i]);
+			else if (args[i].equals("--strategies") && i + 1 < args.length)
+				strategies = args[++i];
+			else
+				files[numFiles++] = args[i];
+		}
+		if (numFiles == 0) {
+			files = GridSizeBenchmark.SAMPLES;
+			numFiles = files.length;
+		}
+
+		System.out.printf(" %-26s %-12s %-10s %10s %10s%n", "puzzle", "cell rule", "value rule", "guesses", "time (ms)");
+		for (int f = 0; f < numFiles; f++) {
+			PuzzleReader reader = new PuzzleReader(files[f]);
+			int[] cells = reader.next();
+			reader.close();
+			if (cells == null) {
+				System.out.println(" " + files[f] + ": no puzzle found");
+				continue;
+			}
+			int dimension = (int) Math.round(Math.sqrt(cells.length));
+			for (String cellRule : SudokuSolver.CELL_RULES) {
+				for (String valueRule : SudokuSolver.VALUE_RULES) {
+					SudokuSolver solver = new SudokuSolver();
+					solver.setStrategies(EliminationStrategy.createAll(strategies));
+					solver.setBranching(cellRule, valueRule);
+					double time = GridSizeBenchmark.bestTime(solver, cells, dimension, repetitions);
+					System.out.printf(" %-26s %-12s %-10s %10d %10.3f%n", files[f], cellRule, valueRule,
+							solver.getNumGuessesMade(), time);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,97 @@
+/**
+ * This interface holds the loops of VectorSolver over many Cells at once:
+ * removing a value from the row, column and subgrid of a Cell, and reducing
+ * every unit of the grid to the values possible in at least one and in at
+ * least two of its Cells. Every Cell is one long in a flat array, row by row,
+ * bit v - 1 set if value v is possible.
+ *
+ * The reduction gives all VectorSolver needs from the units: a value missing
+ * from the first mask has no possible Cell, a value in the first mask but not
+ * the second has exactly one, and for the masks of values that are set, a
+ * value in the second mask is a duplicate.
+ *
+ * create() returns VectorKernels, which uses the Vector API
+ * (jdk.incubator.vector), when it was compiled and the JVM was started with
+ * "--add-modules jdk.incubator.vector", and the scalar loops of Scalar
+ * otherwise. Both return exactly the same results.
+ *
+ * @author devankarsann
+ */
+
+public interface CandidateKernels {
+
+	/**
+	 * This method removes a value from every Cell of the row, column and
+	 * subgrid of a Cell, the Cell itself included.
+	 *
+	 * @param masks, possible values of every Cell
+	 * @param topology, layout of the grid
+	 * @param cell, index of the Cell
+	 * @param bit, the value to remove
+	 */
+	void removeValue(long[] masks, Topology topology, int cell, long bit);
+
+	/**
+	 * This method reduces every unit: union[unit] gets the values possible in
+	 * at least one of its Cells, twice[unit] those possible in at least two.
+	 * Units are numbered as in Topology.
+	 *
+	 * @param masks, possible values of every Cell
+	 * @param topology, layout of the grid
+	 * @param union, receives one mask per unit
+	 * @param twice, receives one mask per unit
+	 */
+	void reduceUnits(long[] masks, Topology topology, long[] union, long[] twice);
+
+	/**
+	 * This method returns the name of the implementation, "vector" or "scalar".
+	 *
+	 * @return String
+	 */
+	String getName();
+
+	/**
+	 * This method returns VectorKernels if it can be loaded, Scalar otherwise.
+	 *
+	 * @return CandidateKernels
+	 */
+	static CandidateKernels create() {
+		try {
+			return (CandidateKernels) Class.forName("VectorKernels").getDeclaredConstructor().newInstance();
+		} catch (ReflectiveOperationException | LinkageError e) {
+			// not compiled, or the JVM runs without the jdk.incubator.vector module
+			return new Scalar();
+		}
+	}
+
+	/**
+	 * This class is the scalar implementation, one Cell after another.
+	 */
+	final class Scalar implements CandidateKernels {
+
+		public void removeValue(long[] masks, Topology topology, int cell, long bit) {
+			for (int k = 0; k < topology.numPeers; k++)
+				masks[topology.peers[cell * topology.numPeers + k]] &= ~bit;
+			masks[cell] &= ~bit;
+		}
+
+		public void reduceUnits(long[] masks, Topology topology, long[] union, long[] twice) {
+			int dimension = topology.dimension;
+			for (int unit = 0; unit < topology.numUnits; unit++) {
+				long one = 0;
+				long two = 0;
+				for (int k = unit * dimension; k < (unit + 1) * dimension; k++) {
+					long x = masks[topology.unitCells[k]];
+					two |= one & x;
+					one |= x;
+				}
+				union[unit] = one;
+				twice[unit] = two;
+			}
+		}
+
+		public String getName() {
+			return "scalar";
+		}
+	}
+}
@@ -0,0 +1,379 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class maps a puzzle to its canonical form, the same grid for every
+ * puzzle which only differs from it by
+ *
+ * relabeling the values (e.g. every 3 becomes a 7 and every 7 a 3)
+ * transposing the grid
+ * swapping bands (rows of subgrids) or rows within a band
+ * swapping stacks (columns of subgrids) or columns within a stack
+ *
+ * Such puzzles have the same solutions up to the same transformation, so a
+ * solution found for the canonical form can be mapped back to every one of
+ * them (see SolutionCache).
+ *
+ * definition of 'label': a number for a row, column, band or stack which
+ * doesn't change under the transformations above. Rows and columns are
+ * labeled by their givens, how often the value of each given occurs in the
+ * puzzle, and the labels of the lines crossing them there. Bands and stacks
+ * are labeled by the labels of their lines.
+ *
+ * The rows are ordered by band label, then by row label within each band, the
+ * columns the same way, and the values are renumbered in the order they first
+ * appear. Lines with equal labels can't be told apart this way, so every order
+ * of them is tried, both with and without transposing, and the smallest grid
+ * wins. Only the first ORDER_LIMIT orders of the rows and of the columns are
+ * tried, so a very symmetric puzzle may get another canonical form than one
+ * of its transformations; that only costs a cache miss, the form is always
+ * the puzzle transformed.
+ *
+ * @author devankarsann
+ */
+
+public final class CanonicalForm {
+
+	// number of row orders and of column orders tried per orientation
+	static final int ORDER_LIMIT = 64;
+	// rounds of label refinement between rows and columns
+	private static final int ROUNDS = 2;
+
+	final int dimension;
+	// values of the canonical form row by row, 0 for unknown values
+	final int[] cells;
+	// the canonical form as a String, the key of SolutionCache
+	final String key;
+	private final boolean transposed;
+	// rowOrder[i] is the row (column if transposed) of the puzzle which is row i of the canonical form
+	private final int[] rowOrder;
+	private final int[] colOrder;
+	// valueMap[v] is the canonical value of value v of the puzzle, valueMap[0] is 0
+	private final int[] valueMap;
+	private final int[] inverseMap;
+
+	private CanonicalForm(int dimension, int[] cells, boolean transposed, int[] rowOrder, int[] colOrder, int[] valueMap) {
+		this.dimension = dimension;
+		this.cells = cells;
+		this.transposed = transposed;
+		this.rowOrder = rowOrder;
+		this.colOrder = colOrder;
+		this.valueMap = valueMap;
+		inverseMap = new int[valueMap.length];
+		for (int v = 0; v < valueMap.length; v++)
+			inverseMap[valueMap[v]] = v;
+		char[] text = new char[cells.length];
+		for (int i = 0; i < cells.length; i++)
+			text[i] = (char) cells[i];
+		key = new String(text);
+	}
+
+	/**
+	 * This method returns the canonical form of a puzzle.
+	 *
+	 * @param puzzle, values row by row, 0 for unknown values
+	 * @param dimension, number of rows and columns
+	 * @return CanonicalForm
+	 */
+	public static CanonicalForm of(int[] puzzle, int dimension) {
+		Topology topology = Topology.forDimension(dimension);
+		int boxSize = topology.boxSize;
+		int[] rowLabels = new int[dimension];
+		int[] colLabels = new int[dimension];
+		label(puzzle, dimension, rowLabels, colLabels);
+
+		int[] best = null;
+		boolean bestTransposed = false;
+		int[] bestRows = null;
+		int[] bestCols = null;
+		int[] grid = puzzle;
+		int[] candidate = new int[puzzle.length];
+		int[] map = new int[dimension + 1];
+		for (int orientation = 0; orientation < 2; orientation++) {
+			if (orientation == 1) {
+				grid = transpose(puzzle, dimension);
+				int[] swap = rowLabels;
+				rowLabels = colLabels;
+				colLabels = swap;
+			}
+			List<int[]> rowOrders = lineOrders(rowLabels, boxSize);
+			List<int[]> colOrders = lineOrders(colLabels, boxSize);
+			for (int[] rows : rowOrders) {
+				for (int[] cols : colOrders) {
+					if (arrange(grid, dimension, rows, cols, candidate, map, best)) {
+						best = candidate.clone();
+						bestTransposed = orientation == 1;
+						bestRows = rows;
+						bestCols = cols;
+					}
+				}
+			}
+		}
+
+		// the mapping of the values is found again for the winner, and values
+		// which the puzzle doesn't use get the canonical values left over
+		grid = bestTransposed ? transpose(puzzle, dimension) : puzzle;
+		Arrays.fill(map, 0);
+		arrange(grid, dimension, bestRows, bestCols, candidate, map, null);
+		int next = 0;
+		for (int v = 1; v <= dimension; v++)
+			next = Math.max(next, map[v]);
+		for (int v = 1; v <= dimension; v++) {
+			if (map[v] == 0)
+				map[v] = ++next;
+		}
+		return new CanonicalForm(dimension, best, bestTransposed, bestRows, bestCols, map);
+	}
+
+	/**
+	 * This method maps a solution of the canonical form to the solution of the
+	 * puzzle this form was made of.
+	 *
+	 * @param solution, of the canonical form
+	 * @return int[]
+	 */
+	public int[] toOriginal(int[] solution) {
+		int[] original = new int[solution.length];
+		for (int i = 0; i < solution.length; i++)
+			original[originalIndex(i)] = inverseMap[solution[i]];
+		return original;
+	}
+
+	/**
+	 * This method maps a solution of the puzzle this form was made of to the
+	 * solution of the canonical form.
+	 *
+	 * @param solution, of the puzzle
+	 * @return int[]
+	 */
+	public int[] toCanonical(int[] solution) {
+		int[] canonical = new int[solution.length];
+		for (int i = 0; i < solution.length; i++)
+			canonical[i] = valueMap[solution[originalIndex(i)]];
+		return canonical;
+	}
+
+	/**
+	 * This method returns the index in the puzzle of a Cell of the canonical form.
+	 *
+	 * @param index, of the Cell in the canonical form
+	 * @return int
+	 */
+	private int originalIndex(int index) {
+		int row = rowOrder[index / dimension];
+		int col = colOrder[index % dimension];
+		return transposed ? col * dimension + row : row * dimension + col;
+	}
+
+	/**
+	 * This method writes a puzzle with its rows and columns in the given order
+	 * and its values renumbered in the order they first appear into
+	 * 'candidate', and compares it with the best grid so far. It stops as soon
+	 * as the candidate is known to be larger.
+	 *
+	 * @param grid, values of the puzzle, transposed or not
+	 * @param dimension, number of rows and columns
+	 * @param rows, order of the rows
+	 * @param cols, order of the columns
+	 * @param candidate, receives the arranged grid
+	 * @param map, cleared here, receives the renumbering of the values
+	 * @param best, smallest grid so far, or null
+	 * @return boolean, true if the candidate is smaller than 'best'
+	 */
+	private static boolean arrange(int[] grid, int dimension, int[] rows, int[] cols, int[] candidate, int[] map, int[] best) {
+		Arrays.fill(map, 0);
+		int next = 0;
+		boolean smaller = best == null;
+		int index = 0;
+		for (int r = 0; r < dimension; r++) {
+			int rowStart = rows[r] * dimension;
+			for (int c = 0; c < dimension; c++, index++) {
+				int value = grid[rowStart + cols[c]];
+				if (value != 0) {
+					if (map[value] == 0)
+						map[value] = ++next;
+					value = map[value];
+				}
+				candidate[index] = value;
+				if (smaller == false) {
+					if (value > best[index])
+						return false;
+					if (value < best[index])
+						smaller = true;
+				}
+			}
+		}
+		return smaller;
+	}
+
+	/**
+	 * This method labels the rows and columns of a puzzle.
+	 *
+	 * @param puzzle, values row by row, 0 for unknown values
+	 * @param dimension, number of rows and columns
+	 * @param rowLabels, receives the label of every row
+	 * @param colLabels, receives the label of every column
+	 */
+	private static void label(int[] puzzle, int dimension, int[] rowLabels, int[] colLabels) {
+		// how often each value occurs doesn't change when the values are renumbered
+		int[] occurrences = new int[dimension + 1];
+		for (int value : puzzle)
+			occurrences[value]++;
+		int[] weights = new int[puzzle.length];
+		for (int i = 0; i < puzzle.length; i++)
+			weights[i] = puzzle[i] == 0 ? 0 : occurrences[puzzle[i]];
+
+		int[] line = new int[dimension];
+		for (int k = 0; k < dimension; k++) {
+			for (int j = 0; j < dimension; j++)
+				line[j] = weights[k * dimension + j];
+			rowLabels[k] = hashSorted(line);
+			for (int j = 0; j < dimension; j++)
+				line[j] = weights[j * dimension + k];
+			colLabels[k] = hashSorted(line);
+		}
+
+		int[] rows = new int[dimension];
+		int[] cols = new int[dimension];
+		for (int round = 0; round < ROUNDS; round++) {
+			for (int k = 0; k < dimension; k++) {
+				for (int j = 0; j < dimension; j++)
+					line[j] = weights[k * dimension + j] == 0 ? 0 : mix(weights[k * dimension + j] * 31 + colLabels[j]);
+				rows[k] = mix(rowLabels[k] * 31 + hashSorted(line));
+				for (int j = 0; j < dimension; j++)
+					line[j] = weights[j * dimension + k] == 0 ? 0 : mix(weights[j * dimension + k] * 31 + rowLabels[j]);
+				cols[k] = mix(colLabels[k] * 31 + hashSorted(line));
+			}
+			System.arraycopy(rows, 0, rowLabels, 0, dimension);
+			System.arraycopy(cols, 0, colLabels, 0, dimension);
+		}
+	}
+
+	/**
+	 * This method returns the orders of the lines (rows or columns) which are
+	 * tried: bands by their label, then lines by their label within each band,
+	 * every order of lines with equal labels, up to ORDER_LIMIT.
+	 *
+	 * @param labels, label of every line
+	 * @param boxSize, number of lines per band
+	 * @return List<int[]>
+	 */
+	private static List<int[]> lineOrders(int[] labels, int boxSize) {
+		int[] bandLabels = new int[boxSize];
+		int[] members = new int[boxSize];
+		List<List<int[]>> bandOrders = new ArrayList<List<int[]>>();
+		for (int band = 0; band < boxSize; band++) {
+			for (int k = 0; k < boxSize; k++)
+				members[k] = labels[band * boxSize + k];
+			bandLabels[band] = hashSorted(members.clone());
+			int[] lines = new int[boxSize];
+			for (int k = 0; k < boxSize; k++)
+				lines[k] = band * boxSize + k;
+			bandOrders.add(arrangements(lines, labels));
+		}
+		int[] bands = new int[boxSize];
+		for (int band = 0; band < boxSize; band++)
+			bands[band] = band;
+
+		List<int[]> orders = new ArrayList<int[]>();
+		for (int[] bandOrder : arrangements(bands, bandLabels)) {
+			int[] choice = new int[boxSize];
+			// every combination of the line orders of the bands, like an odometer
+			while (orders.size() < ORDER_LIMIT) {
+				int[] order = new int[boxSize * boxSize];
+				for (int k = 0; k < boxSize; k++)
+					System.arraycopy(bandOrders.get(bandOrder[k]).get(choice[k]), 0, order, k * boxSize, boxSize);
+				orders.add(order);
+				int k = boxSize - 1;
+				while (k >= 0 && ++choice[k] == bandOrders.get(bandOrder[k]).size())
+					choice[k--] = 0;
+				if (k < 0)
+					break;
+			}
+			if (orders.size() == ORDER_LIMIT)
+				break;
+		}
+		return orders;
+	}
+
+	/**
+	 * This method returns the items sorted by label, and every order in which
+	 * items with equal labels trade places, up to ORDER_LIMIT.
+	 *
+	 * @param items, numbers of the items
+	 * @param labels, label of every item number
+	 * @return List<int[]>
+	 */
+	private static List<int[]> arrangements(int[] items, int[] labels) {
+		Integer[] sorted = new Integer[items.length];
+		for (int k = 0; k < items.length; k++)
+			sorted[k] = items[k];
+		Arrays.sort(sorted, (a, b) -> Integer.compare(labels[a], labels[b]));
+		int[] order = new int[items.length];
+		for (int k = 0; k < items.length; k++)
+			order[k] = sorted[k];
+		List<int[]> result = new ArrayList<int[]>();
+		permute(order, labels, 0, new boolean[items.length], new int[items.length], result);
+		return result;
+	}
+
+	/**
+	 * This method fills the positions from 'pos' on, each with one of the
+	 * unused items of the same label as the item sorted there.
+	 */
+	private static void permute(int[] sorted, int[] labels, int pos, boolean[] used, int[] order, List<int[]> result) {
+		if (result.size() == ORDER_LIMIT)
+			return;
+		if (pos == sorted.length) {
+			result.add(order.clone());
+			return;
+		}
+		int label = labels[sorted[pos]];
+		for (int k = 0; k < sorted.length; k++) {
+			if (used[k] == false && labels[sorted[k]] == label) {
+				used[k] = true;
+				order[pos] = sorted[k];
+				permute(sorted, labels, pos + 1, used, order, result);
+				used[k] = false;
+			}
+		}
+	}
+
+	/**
+	 * This method returns a hash of the numbers which doesn't depend on their
+	 * order. The array is sorted.
+	 *
+	 * @return int
+	 */
+	private static int hashSorted(int[] numbers) {
+		Arrays.sort(numbers);
+		int hash = numbers.length;
+		for (int number : numbers)
+			hash = hash * 31 + number;
+		return mix(hash);
+	}
+
+	private static int mix(int x) {
+		x ^= x >>> 16;
+		x *= 0x7feb352d;
+		x ^= x >>> 15;
+		x *= 0x846ca68b;
+		x ^= x >>> 16;
+		return x;
+	}
+
+	/**
+	 * This method returns the puzzle with rows and columns swapped.
+	 *
+	 * @return int[]
+	 */
+	private static int[] transpose(int[] puzzle, int dimension) {
+		int[] transposed = new int[puzzle.length];
+		for (int r = 0; r < dimension; r++) {
+			for (int c = 0; c < dimension; c++)
+				transposed[c * dimension + r] = puzzle[r * dimension + c];
+		}
+		return transposed;
+	}
+}
@@ -1,68 +1,154 @@
-import java.util.ArrayList;
+import java.util.Arrays;
 
 /**
 * This is the Cell object class. It contains the constructor, variables, and
 * methods for Cell objects. Cell objects are each at individual locations, with
 * unique row and column indices within the two-dimensional the 'grid' array
-* in the Solver.java class
-* 
-* definition of 'subgrid': a group of 3x3 cell objects, each cell having a 
-* unique value from numbers 1 to 9
-* 
-* definition of 'neighboring cell': Cell objects within the same row, column, or 
+* in the SudokuSolver.java class
+*
+* definition of 'subgrid': a group of boxSize x boxSize cell objects (3x3 in a
+* 9x9 grid, 4x4 in a 16x16 grid and so on, see Topology), each cell having a
+* unique value from numbers 1 to dimension
+*
+* definition of 'neighboring cell': Cell objects within the same row, column, or
 * subgrid as another Cell object
-* 
+*
+* The possible values of a Cell are stored as a bitmask, where bit (value - 1)
+* is set when value is still possible. Grids with a dimension of 32 or less use
+* a single int, larger grids fall back to an array of longs.
+*
 * @author devankarsann
 */
 
 public class Cell {
 
 	private boolean valueWasSet = false;
-	private boolean[] possibleNumsBoolean;
-	private ArrayList<Integer> possibleNumsArrayList = new ArrayList<Integer>();
+	private int possibleNums;
+	private long[] possibleNumsWide;
+	private int numPossible;
 	private int value = 0;
 	private int dimension;
 	/**
 	 * This is the constructor method for a Cell object.
-	 * values in possibleNumsBoolean are initialized to true.
-	 * possible values are added to possibleNumsArrayList.
+	 * All values from 1 to dimension are initialized as possible.
 	 */
 	public Cell(int inputNumRows) {
 		dimension = inputNumRows;
-		possibleNumsBoolean = new boolean[dimension];
-		for (int i = 0; i < dimension; i++) {
-			possibleNumsBoolean[i] = true;
-			possibleNumsArrayList.add(i + 1);
+		if (dimension > 32)
+			possibleNumsWide = new long[(dimension + 63) / 64];
+		resetPossibleNums();
+	}
+
+	/**
+	 * This method clears the value of a Cell and marks every value as possible
+	 * again, so the Cell can be used for another puzzle.
+	 */
+	public void reset() {
+		value = 0;
+		setValueWasSet(false);
+		resetPossibleNums();
+	}
+
+	/**
+	 * This method makes this Cell an exact copy of another Cell of the same
+	 * dimension.
+	 *
+	 * @param other, Cell to copy
+	 */
+	public void copyFrom(Cell other) {
+		value = other.value;
+		valueWasSet = other.valueWasSet;
+		numPossible = other.numPossible;
+		possibleNums = other.possibleNums;
+		if (possibleNumsWide != null)
+			System.arraycopy(other.possibleNumsWide, 0, possibleNumsWide, 0, possibleNumsWide.length);
+	}
+
+	/**
+	 * This method marks every value from 1 to dimension as possible again.
+	 */
+	private void resetPossibleNums() {
+		if (possibleNumsWide == null) {
+			possibleNums = dimension == 32 ? -1 : (1 << dimension) - 1;
+		} else {
+			for (int i = 0; i < possibleNumsWide.length; i++) {
+				int bits = Math.min(64, dimension - i * 64);
+				possibleNumsWide[i] = bits == 64 ? -1L : (1L << bits) - 1;
+			}
 		}
+		numPossible = dimension;
 	}
 
 	/**
 	 * This method sets the value for a Cell and would be called after a solution is found.
-	 * Possible values are set to false because the value is known.
-	 * Remaining numbers are removed from possibleNumsArrayList.
-	 * 
+	 * Possible values are cleared because the value is known.
+	 *
 	 * @param value to be assigned to a Cell
 	 */
 	public void setCellValue(int value) {
 		this.value = value;
-		for (int i = 0; i < dimension; i++)
-			possibleNumsBoolean[i] = false;
-		possibleNumsArrayList.clear();
+		if (possibleNumsWide == null)
+			possibleNums = 0;
+		else
+			Arrays.fill(possibleNumsWide, 0L);
+		numPossible = 0;
 		setValueWasSet(true);
 	}
 
 	/**
-	 * This method sets the possibility of a Cell at the specified index to be false.
-	 * 
-	 * @param index
+	 * This method sets the possibility of a Cell for the specified value to be false.
+	 *
+	 * @param index, value between 1 and dimension
+	 * @return boolean, true if the value was possible before this call
+	 */
+	public boolean setValueToFalse(int index) {
+		if (index < 1 || index > dimension)
+			return false;
+		int bit = index - 1;
+		if (possibleNumsWide == null) {
+			int mask = 1 << bit;
+			if ((possibleNums & mask) == 0)
+				return false;
+			possibleNums &= ~mask;
+		} else {
+			long mask = 1L << (bit & 63);
+			if ((possibleNumsWide[bit >>> 6] & mask) == 0)
+				return false;
+			possibleNumsWide[bit >>> 6] &= ~mask;
+		}
+		numPossible--;
+		return true;
+	}
+
+	/**
+	 * This method sets the possibility of a Cell for the specified value back to
+	 * true. It is used when a change to the grid is undone.
+	 *
+	 * @param index, value between 1 and dimension
 	 */
-	public void setValueToFalse(int index) {
-		if (possibleNumsArrayList.contains((Object) index)) 
-		{
-			possibleNumsBoolean[index - 1] = false;
-			int temp = possibleNumsArrayList.indexOf(index);
-			possibleNumsArrayList.remove(temp);
+	public void setValueToTrue(int index) {
+		int bit = index - 1;
+		if (possibleNumsWide == null) {
+			int mask = 1 << bit;
+			if ((possibleNums & mask) != 0)
+				return;
+			possibleNums |= mask;
+		} else {
+			long mask = 1L << (bit & 63);
+			if ((possibleNumsWide[bit >>> 6] & mask) != 0)
+				return;
+			possibleNumsWide[bit >>> 6] |= mask;
 		}
+		numPossible++;
+	}
+
+	/**
+	 * This method takes back the value of a Cell. The Cell is left with no
+	 * possible values, they are given back with setValueToTrue.
+	 */
+	public void clearCellValue() {
+		value = 0;
+		setValueWasSet(false);
 	}
 
 	/**
@@ -70,37 +156,91 @@ public class Cell {
 	 * @return int
 	 */
 	public int getNumPossible() {
-		return possibleNumsArrayList.size();
+		return numPossible;
+	}
+
+	/**
+	 * This method returns the smallest possible value of a Cell, or 0 if no
+	 * values are possible.
+	 *
+	 * @return int
+	 */
+	public int getLowestPossible() {
+		return getNextPossible(0);
+	}
+
+	/**
+	 * This method returns the smallest possible value of a Cell which is greater
+	 * than the given value, or 0 if there is none. Together with getLowestPossible
+	 * this walks the possible values without allocating.
+	 *
+	 * @param after, value to start searching after (0 to start from the beginning)
+	 * @return int
+	 */
+	public int getNextPossible(int after) {
+		if (after >= dimension)
+			return 0;
+		if (possibleNumsWide == null) {
+			int rest = after >= 32 ? 0 : possibleNums & (-1 << after);
+			return rest == 0 ? 0 : Integer.numberOfTrailingZeros(rest) + 1;
+		}
+		int word = after >>> 6;
+		long rest = possibleNumsWide[word] & (-1L << (after & 63));
+		while (rest == 0) {
+			if (++word == possibleNumsWide.length)
+				return 0;
+			rest = possibleNumsWide[word];
+		}
+		return word * 64 + Long.numberOfTrailingZeros(rest) + 1;
 	}
-	
+
 	/**
 	 * This method finds the value which a Cell needs to be to fulfill the
 	 * requirements of the numbers 1 through 9 appearing in each row, column, and subgrid.
-	 * 
-	 * @param list, ArrayList of non-repeating integers made up of known Cell values 
+	 *
+	 * @param known, known[v] is true when value v is already used by a Cell
 	 * in the same row, column, or subgrid as a given Cell
+	 * @return int, the last value which is not known, or 0 if all are known
 	 */
-	public void findCellValueFromArrayList(ArrayList<Integer> list) {
+	public int findCellValueFromKnownValues(boolean[] known) {
+		int found = 0;
 		for (int i = 0; i < dimension; i++) {
-			if (!list.contains(i + 1)) {
-				setCellValue(i + 1);
+			if (!known[i + 1]) {
+				found = i + 1;
 			}
 		}
+		return found;
 	}
 
 	/**
 	 * This method returns the possibility (true/false) of a Cell being a specific value
-	 * 
-	 * @param index of value within a Cell's possibleNumsBoolean array
+	 *
+	 * @param index of value within a Cell's possible values (value - 1)
 	 * @return boolean
 	 */
 	public boolean getPossibleNum(int index) {
-		return possibleNumsBoolean[index];
+		if (index < 0 || index >= dimension)
+			return false;
+		if (possibleNumsWide == null)
+			return (possibleNums & (1 << index)) != 0;
+		return (possibleNumsWide[index >>> 6] & (1L << (index & 63))) != 0;
+	}
+
+	/**
+	 * This method returns the possible values of a Cell as a bitmask, where bit
+	 * (value - 1) is set when value is possible. Only values up to 64 fit.
+	 *
+	 * @return long
+	 */
+	public long getPossibleBits() {
+		if (possibleNumsWide == null)
+			return possibleNums & 0xFFFFFFFFL;
+		return possibleNumsWide[0];
 	}
 
 	/**
 	 * This method returns the value of a Cell.
-	 * 
+	 *
 	 * @return
 	 */
 	public int getCellValue() {
@@ -110,7 +250,7 @@ public class Cell {
 	/**
 	 * This method returns boolean value representing whether or not the value
 	 * of a Cell was set (i.e. true if the value is not zero).
-	 * 
+	 *
 	 * @return
 	 */
 	public boolean getValueWasSet() {
@@ -118,12 +258,19 @@ public class Cell {
 	}
 
 	/**
-	 * This method returns the 'possibleNumsArrayList associated with a Cell
-	 * 
-	 * @return ArrayList<Integer>
+	 * This method returns the possible values of a Cell formatted like a list,
+	 * e.g. "[1, 4, 7]". It is only used for the solutionSteps log.
+	 *
+	 * @return String
 	 */
-	public ArrayList<Integer> getPossibleNumsArrayList() {
-		return possibleNumsArrayList;
+	public String possibleNumsToString() {
+		StringBuilder str = new StringBuilder("[");
+		for (int v = getLowestPossible(); v != 0; v = getNextPossible(v)) {
+			if (str.length() > 1)
+				str.append(", ");
+			str.append(v);
+		}
+		return str.append(']').toString();
 	}
 
 	public boolean valueWasSet() {
@@ -0,0 +1,274 @@
+/**
+ * This is the Dancing Links engine of my Sudoku solving program. It solves a
+ * puzzle as an exact cover problem (Knuth's Algorithm X) instead of using the
+ * solution techniques of SudokuSolver.
+ *
+ * Every constraint of the puzzle is a column of the exact cover matrix:
+ * each Cell has a value, each row has each value, each column has each value
+ * and each subgrid has each value, 4 * dimension^2 columns in total. Every
+ * possible placement (row, column, value) is a row of the matrix which covers
+ * exactly 4 columns. A solution is a set of rows which covers every column once.
+ *
+ * The matrix is built once per dimension as arrays of node links, and the
+ * search keeps its choices in an array instead of recursing, so solving a
+ * puzzle doesn't allocate anything besides the returned values.
+ *
+ * @author devankarsann
+ */
+
+public class DlxSolver implements SudokuEngine {
+
+	private int dimension = 0;
+	private int numColumns;
+	// node links; node 0 is the root, nodes 1 to numColumns are column headers
+	// and every placement has 4 nodes after that
+	private int[] left;
+	private int[] right;
+	private int[] up;
+	private int[] down;
+	private int[] column;
+	private int[] size;
+	// placement of each node, (row * dimension + col) * dimension + value - 1
+	private int[] placement;
+	// first node of each placement
+	private int[] firstNode;
+	// nodes chosen at each search level, givens first
+	private int[] chosen;
+	private int numChosen;
+	private int numGivens;
+	private long numNodes;
+
+	/**
+	 * This method solves a puzzle and returns its values row by row, or null if
+	 * the puzzle has an error in its input or no solution.
+	 *
+	 * @param cells, dimension * dimension values row by row, 0 for unknown values
+	 * @param dimension, number of rows and columns
+	 * @return int[]
+	 */
+	public int[] solve(int[] cells, int dimension) {
+		SudokuEngine.checkPuzzle(cells, dimension);
+		if (this.dimension != dimension)
+			build(dimension);
+		numNodes = 0;
+		int[] solution = null;
+		if (coverGivens(cells) && search()) {
+			solution = new int[dimension * dimension];
+			for (int i = 0; i < numChosen; i++) {
+				int p = placement[chosen[i]];
+				solution[p / dimension] = p % dimension + 1;
+			}
+		}
+		restore();
+		return solution;
+	}
+
+	/**
+	 * This method returns the number of search nodes (placements tried) of the
+	 * last solve.
+	 *
+	 * @return long
+	 */
+	public long getNumNodes() {
+		return numNodes;
+	}
+
+	/**
+	 * This method builds the exact cover matrix for the given dimension.
+	 *
+	 * @param dimension, number of rows and columns
+	 */
+	private void build(int dimension) {
+		this.dimension = dimension;
+		Topology topology = Topology.forDimension(dimension);
+		int cellsInGrid = dimension * dimension;
+		int numPlacements = cellsInGrid * dimension;
+		numColumns = 4 * cellsInGrid;
+		int numNodesTotal = 1 + numColumns + 4 * numPlacements;
+		left = new int[numNodesTotal];
+		right = new int[numNodesTotal];
+		up = new int[numNodesTotal];
+		down = new int[numNodesTotal];
+		column = new int[numNodesTotal];
+		size = new int[numColumns + 1];
+		placement = new int[numNodesTotal];
+		firstNode = new int[numPlacements];
+		chosen = new int[cellsInGrid];
+
+		for (int c = 0; c <= numColumns; c++) {
+			left[c] = c == 0 ? numColumns : c - 1;
+			right[c] = c == numColumns ? 0 : c + 1;
+			up[c] = c;
+			down[c] = c;
+			column[c] = c;
+		}
+
+		int node = numColumns + 1;
+		for (int row = 0; row < dimension; row++) {
+			for (int col = 0; col < dimension; col++) {
+				int box = topology.boxOf[row * dimension + col];
+				for (int v = 0; v < dimension; v++) {
+					int p = (row * dimension + col) * dimension + v;
+					int[] columns = {
+						1 + row * dimension + col,
+						1 + cellsInGrid + row * dimension + v,
+						1 + 2 * cellsInGrid + col * dimension + v,
+						1 + 3 * cellsInGrid + box * dimension + v };
+					firstNode[p] = node;
+					for (int k = 0; k < 4; k++) {
+						int c = columns[k];
+						int n = node + k;
+						column[n] = c;
+						placement[n] = p;
+						left[n] = k == 0 ? node + 3 : n - 1;
+						right[n] = k == 3 ? node : n + 1;
+						// append at the bottom of the column
+						up[n] = up[c];
+						down[n] = c;
+						down[up[c]] = n;
+						up[c] = n;
+						size[c]++;
+					}
+					node += 4;
+				}
+			}
+		}
+	}
+
+	/**
+	 * This method chooses the placements of the given values. It returns false
+	 * if two givens need the same column, i.e. the input has an error.
+	 *
+	 * @param cells, values of the puzzle row by row
+	 * @return boolean
+	 */
+	private boolean coverGivens(int[] cells) {
+		numChosen = 0;
+		for (int i = 0; i < cells.length; i++) {
+			int value = cells[i];
+			if (value == 0)
+				continue;
+			if (value < 0 || value > dimension)
+				return false;
+			int node = firstNode[i * dimension + value - 1];
+			// a covered column is no longer linked into the header list
+			int n = node;
+			do {
+				int c = column[n];
+				if (right[left[c]] != c)
+					return false;
+				n = right[n];
+			} while (n != node);
+			n = node;
+			do {
+				cover(column[n]);
+				n = right[n];
+			} while (n != node);
+			chosen[numChosen++] = node;
+		}
+		numGivens = numChosen;
+		return true;
+	}
+
+	/**
+	 * This method runs Algorithm X on the columns which are left after the
+	 * givens were chosen. It stops at the first solution, whose placements are
+	 * left in 'chosen'.
+	 *
+	 * @return boolean, true if a solution was found
+	 */
+	private boolean search() {
+		int level = numChosen;
+		int node = 0;
+		boolean descend = true;
+		while (true) {
+			if (descend) {
+				if (right[0] == 0) {
+					numChosen = level;
+					return true;
+				}
+				// choose the column with the fewest rows left
+				int best = right[0];
+				for (int c = right[best]; c != 0 && size[best] > 1; c = right[c]) {
+					if (size[c] < size[best])
+						best = c;
+				}
+				cover(best);
+				node = down[best];
+			} else {
+				if (level == numGivens) {
+					numChosen = level;
+					return false;
+				}
+				level--;
+				node = chosen[level];
+				for (int n = left[node]; n != node; n = left[n])
+					uncover(column[n]);
+				node = down[node];
+			}
+			int c = column[node];
+			if (node == c) {
+				// every row of this column was tried
+				uncover(c);
+				descend = false;
+				continue;
+			}
+			numNodes++;
+			chosen[level++] = node;
+			for (int n = right[node]; n != node; n = right[n])
+				cover(column[n]);
+			descend = true;
+		}
+	}
+
+	/**
+	 * This method puts the matrix back the way it was before the givens were
+	 * chosen, so the next puzzle can use it.
+	 */
+	private void restore() {
+		// givens and search levels both covered the columns of their row from
+		// the chosen node rightwards, so they are uncovered leftwards
+		for (int i = numChosen - 1; i >= 0; i--) {
+			int node = chosen[i];
+			for (int n = left[node]; n != node; n = left[n])
+				uncover(column[n]);
+			uncover(column[node]);
+		}
+		numChosen = 0;
+		numGivens = 0;
+	}
+
+	/**
+	 * This method removes a column and every row which uses it from the matrix.
+	 *
+	 * @param c, column header node
+	 */
+	private void cover(int c) {
+		right[left[c]] = right[c];
+		left[right[c]] = left[c];
+		for (int i = down[c]; i != c; i = down[i]) {
+			for (int j = right[i]; j != i; j = right[j]) {
+				down[up[j]] = down[j];
+				up[down[j]] = up[j];
+				size[column[j]]--;
+			}
+		}
+	}
+
+	/**
+	 * This method puts back a column removed by cover, in reverse order.
+	 *
+	 * @param c, column header node
+	 */
+	private void uncover(int c) {
+		for (int i = up[c]; i != c; i = up[i]) {
+			for (int j = left[i]; j != i; j = left[j]) {
+				size[column[j]]++;
+				down[up[j]] = j;
+				up[down[j]] = j;
+			}
+		}
+		right[left[c]] = c;
+		left[right[c]] = c;
+	}
+}
@@ -0,0 +1,89 @@
+import java.util.Arrays;
+
+/**
+ * This interface is implemented by the elimination strategies of part 5 of
+ * the solution techniques. A strategy runs when the worklists of SudokuSolver
+ * are empty and, instead of setting values, removes possible values from
+ * Cells. The Cells and units which are left with one possibility are then set
+ * by the worklists, so fewer guesses have to be made.
+ *
+ * Strategies are switched on by name, see create and createAll. Positions
+ * within a unit and possible values are kept in long bitmasks, so the
+ * strategies are only used on grids up to 64x64.
+ *
+ * @author devankarsann
+ */
+
+public interface EliminationStrategy {
+
+	// names of every strategy, cheapest first, which is also the order they run in
+	static final String[] NAMES = { "pointing", "box-line", "naked-pairs", "hidden-pairs", "naked-triples",
+			"hidden-triples", "x-wing" };
+
+	/**
+	 * This method returns the name of the strategy, as used on the command line.
+	 *
+	 * @return String
+	 */
+	String getName();
+
+	/**
+	 * This method looks for the pattern of the strategy in the whole grid and
+	 * removes every possible value it rules out.
+	 *
+	 * @param solver, SudokuSolver whose worklists are empty
+	 * @return boolean, true if any possible value was removed
+	 */
+	boolean apply(SudokuSolver solver);
+
+	/**
+	 * This method creates a strategy by its name.
+	 *
+	 * @param name, one of NAMES
+	 * @return EliminationStrategy
+	 */
+	static EliminationStrategy create(String name) {
+		if (name.equals("pointing"))
+			return new PointingPairs();
+		if (name.equals("box-line"))
+			return new BoxLineReduction();
+		if (name.equals("naked-pairs"))
+			return new NakedSubset(2);
+		if (name.equals("naked-triples"))
+			return new NakedSubset(3);
+		if (name.equals("hidden-pairs"))
+			return new HiddenSubset(2);
+		if (name.equals("hidden-triples"))
+			return new HiddenSubset(3);
+		if (name.equals("x-wing"))
+			return new XWing();
+		throw new IllegalArgumentException("unknown strategy: " + name + " (expected all, none or one of "
+				+ String.join(", ", NAMES) + ")");
+	}
+
+	/**
+	 * This method creates the strategies of a comma separated list, in the
+	 * order of NAMES. "all" switches every strategy on, "none" none of them.
+	 *
+	 * @param list, e.g. "pointing,naked-pairs"
+	 * @return EliminationStrategy[]
+	 */
+	static EliminationStrategy[] createAll(String list) {
+		if (list.equals("none"))
+			return new EliminationStrategy[0];
+		String[] names = list.equals("all") ? NAMES : list.split(",");
+		for (String name : names)
+			create(name.trim());
+		EliminationStrategy[] strategies = new EliminationStrategy[names.length];
+		int count = 0;
+		for (String name : NAMES) {
+			for (String wanted : names) {
+				if (wanted.trim().equals(name)) {
+					strategies[count++] = create(name);
+					break;
+				}
+			}
+		}
+		return Arrays.copyOf(strategies, count);
+	}
+}
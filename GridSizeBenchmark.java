@@ -0,0 +1,91 @@
+import java.io.IOException;
+
+/**
+ * This class times the engines on puzzles of different sizes, to show how
+ * the solve time grows with the dimension of the grid. The flat array engine
+ * (VectorSolver) is timed with scalar kernels and, if the Vector API is
+ * there, with vector kernels (see CandidateKernels). Each puzzle is solved
+ * a few times first so the JVM has compiled the solving methods, then the
+ * best time of the measured repetitions is printed.
+ *
+ * @author devankarsann
+ */
+
+public class GridSizeBenchmark {
+
+	// puzzle files used when none are given
+	static final String[] SAMPLES = { "sampleInput1.txt", "sampleInput5.txt", "sampleInput6_16x16.txt",
+			"sampleInput7_25x25.txt" };
+
+	/**
+	 * This is the main method of the benchmark.
+	 *
+	 * @param args, optionally "--reps n" (5 by default) and the puzzle files,
+	 * the 9x9, 16x16 and 25x25 samples by default
+	 * @throws IOException
+	 */
+	public static void main(String[] args) throws IOException {
+		int repetitions = 5;
+		String[] files = new String[args.length];
+		int numFiles = 0;
+		for (int i = 0; i < args.length; i++) {
+			if (args[i].equals("--reps") && i + 1 < args.length)
+				repetitions = Integer.parseInt(args[++i]);
+			else
+				files[numFiles++] = args[i];
+		}
+		if (numFiles == 0) {
+			files = SAMPLES;
+			numFiles = SAMPLES.length;
+		}
+
+		CandidateKernels kernels = CandidateKernels.create();
+		System.out.printf(" %-26s %9s %8s %16s %10s %12s %12s%n", "puzzle", "size", "unknown", "techniques (ms)", "dlx (ms)",
+				"scalar (ms)", kernels.getName() + " (ms)");
+		for (int f = 0; f < numFiles; f++) {
+			PuzzleReader reader = new PuzzleReader(files[f]);
+			int[] cells = reader.next();
+			reader.close();
+			if (cells == null) {
+				System.out.println(" " + files[f] + ": no puzzle found");
+				continue;
+			}
+			int dimension = (int) Math.round(Math.sqrt(cells.length));
+			int numUnknown = 0;
+			for (int value : cells)
+				numUnknown += value == 0 ? 1 : 0;
+
+			double techniques = bestTime(new SudokuSolver(), cells, dimension, repetitions);
+			double dlx = bestTime(new DlxSolver(), cells, dimension, repetitions);
+			double scalar = bestTime(new VectorSolver(new CandidateKernels.Scalar()), cells, dimension, repetitions);
+			double vector = bestTime(new VectorSolver(kernels), cells, dimension, repetitions);
+			System.out.printf(" %-26s %9s %8d %16.3f %10.3f %12.3f %12.3f%n", files[f], dimension + "x" + dimension, numUnknown,
+					techniques, dlx, scalar, vector);
+		}
+	}
+
+	/**
+	 * This method returns the best solve time of a puzzle in milliseconds, or
+	 * NaN if the engine returned no valid solution.
+	 *
+	 * @param engine, SudokuEngine which is reused for every repetition
+	 * @param cells, values of the puzzle row by row, 0 for unknown values
+	 * @param dimension, number of rows and columns
+	 * @param repetitions, number of measured solves, after as many warmup solves
+	 * @return double
+	 * @throws IOException
+	 */
+	static double bestTime(SudokuEngine engine, int[] cells, int dimension, int repetitions) throws IOException {
+		long best = Long.MAX_VALUE;
+		for (int r = 0; r < 2 * repetitions; r++) {
+			long start = System.nanoTime();
+			int[] solution = engine.solve(cells, dimension);
+			long elapsed = System.nanoTime() - start;
+			if (!SudokuEngine.isSolutionOf(cells, solution, dimension))
+				return Double.NaN;
+			if (r >= repetitions)
+				best = Math.min(best, elapsed);
+		}
+		return best / 1e6;
+	}
+}
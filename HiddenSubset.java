@@ -0,0 +1,87 @@
+/**
+ * This is the hidden pairs (size 2) and hidden triples (size 3) strategy. If
+ * 'size' values of a unit are possible in only 'size' Cells between them,
+ * those Cells have to hold those values, so every other possible value is
+ * removed from them.
+ *
+ * @author devankarsann
+ */
+
+public class HiddenSubset implements EliminationStrategy {
+
+	private int size;
+	// values of the unit being examined which are possible in 2 to 'size' Cells
+	private int[] subsetValues = new int[0];
+	private long[] subsetPositions = new long[0];
+	private int numCandidates;
+
+	/**
+	 * This is the constructor method for a HiddenSubset object.
+	 *
+	 * @param size, 2 for pairs or 3 for triples
+	 */
+	public HiddenSubset(int size) {
+		this.size = size;
+	}
+
+	public String getName() {
+		return size == 2 ? "hidden-pairs" : "hidden-triples";
+	}
+
+	public boolean apply(SudokuSolver solver) {
+		int dimension = solver.dimension;
+		if (subsetValues.length != dimension) {
+			subsetValues = new int[dimension];
+			subsetPositions = new long[dimension];
+		}
+		boolean removed = false;
+		for (int unit = 0; unit < 3 * dimension; unit++) {
+			numCandidates = 0;
+			for (int value = 1; value <= dimension; value++) {
+				int count = solver.candidateCounts[unit * (dimension + 1) + value];
+				if (count >= 2 && count <= size && solver.numPlaced(unit, value) == 0) {
+					subsetValues[numCandidates] = value;
+					subsetPositions[numCandidates++] = solver.positionsOf(unit, value);
+				}
+			}
+			if (numCandidates >= size && findSubset(solver, unit, 0, 0, 0L, 0L))
+				removed = true;
+		}
+		return removed;
+	}
+
+	/**
+	 * This method tries every combination of 'size' candidate values, picking
+	 * them in order, and applies each hidden subset it finds.
+	 *
+	 * @param solver, SudokuSolver being solved
+	 * @param unit, Topology unit number
+	 * @param start, first candidate which may be picked next
+	 * @param picked, number of values picked so far
+	 * @param chosen, bit (value - 1) set for each picked value
+	 * @param union, positions of the picked values within the unit
+	 * @return boolean, true if any value was removed
+	 */
+	private boolean findSubset(SudokuSolver solver, int unit, int start, int picked, long chosen, long union) {
+		if (Long.bitCount(union) > size)
+			return false;
+		if (picked == size) {
+			boolean removed = false;
+			for (long rest = union; rest != 0; rest &= rest - 1) {
+				int index = solver.topology.unitCells[unit * solver.dimension + Long.numberOfTrailingZeros(rest)];
+				for (long other = solver.cells[index].getPossibleBits() & ~chosen; other != 0; other &= other - 1) {
+					if (solver.eliminate(index, Long.numberOfTrailingZeros(other) + 1))
+						removed = true;
+				}
+			}
+			return removed;
+		}
+		boolean removed = false;
+		for (int k = start; k < numCandidates; k++) {
+			long bit = 1L << (subsetValues[k] - 1);
+			if (findSubset(solver, unit, k + 1, picked + 1, chosen | bit, union | subsetPositions[k]))
+				removed = true;
+		}
+		return removed;
+	}
+}
@@ -0,0 +1,107 @@
+/**
+ * This is the naked pairs (size 2) and naked triples (size 3) strategy. If
+ * 'size' Cells of a unit have only 'size' possible values between them, those
+ * values have to go into those Cells, so they are removed from the other
+ * Cells of the unit.
+ *
+ * @author devankarsann
+ */
+
+public class NakedSubset implements EliminationStrategy {
+
+	private int size;
+	// unset Cells of the unit being examined with 2 to 'size' possible values
+	private int[] subsetCells = new int[0];
+	private long[] subsetBits = new long[0];
+	private int numCandidates;
+
+	/**
+	 * This is the constructor method for a NakedSubset object.
+	 *
+	 * @param size, 2 for pairs or 3 for triples
+	 */
+	public NakedSubset(int size) {
+		this.size = size;
+	}
+
+	public String getName() {
+		return size == 2 ? "naked-pairs" : "naked-triples";
+	}
+
+	public boolean apply(SudokuSolver solver) {
+		int dimension = solver.dimension;
+		if (subsetCells.length != dimension) {
+			subsetCells = new int[dimension];
+			subsetBits = new long[dimension];
+		}
+		boolean removed = false;
+		for (int unit = 0; unit < 3 * dimension; unit++) {
+			numCandidates = 0;
+			int numUnset = 0;
+			for (int n = 0; n < dimension; n++) {
+				int index = solver.topology.unitCells[unit * dimension + n];
+				Cell cell = solver.cells[index];
+				if (cell.valueWasSet() == false) {
+					numUnset++;
+					if (cell.getNumPossible() >= 2 && cell.getNumPossible() <= size) {
+						subsetCells[numCandidates] = index;
+						subsetBits[numCandidates++] = cell.getPossibleBits();
+					}
+				}
+			}
+			// a subset which covers every unset Cell removes nothing
+			if (numUnset > size && numCandidates >= size && findSubset(solver, unit, 0, 0, 0L, 0L))
+				removed = true;
+		}
+		return removed;
+	}
+
+	/**
+	 * This method tries every combination of 'size' candidate Cells, picking
+	 * them in order, and applies each naked subset it finds.
+	 *
+	 * @param solver, SudokuSolver being solved
+	 * @param unit, Topology unit number
+	 * @param start, first candidate which may be picked next
+	 * @param picked, number of Cells picked so far
+	 * @param chosen, bit k set when candidate k was picked
+	 * @param union, possible values of the picked Cells
+	 * @return boolean, true if any value was removed
+	 */
+	private boolean findSubset(SudokuSolver solver, int unit, int start, int picked, long chosen, long union) {
+		if (Long.bitCount(union) > size)
+			return false;
+		if (picked == size) {
+			boolean removed = false;
+			for (int n = 0; n < solver.dimension; n++) {
+				int index = solver.topology.unitCells[unit * solver.dimension + n];
+				if (isChosen(index, chosen))
+					continue;
+				for (long rest = union; rest != 0; rest &= rest - 1) {
+					if (solver.eliminate(index, Long.numberOfTrailingZeros(rest) + 1))
+						removed = true;
+				}
+			}
+			return removed;
+		}
+		boolean removed = false;
+		for (int k = start; k < numCandidates; k++) {
+			if (findSubset(solver, unit, k + 1, picked + 1, chosen | (1L << k), union | subsetBits[k]))
+				removed = true;
+		}
+		return removed;
+	}
+
+	/**
+	 * This method returns true if the Cell is one of the picked candidates.
+	 *
+	 * @return boolean
+	 */
+	private boolean isChosen(int index, long chosen) {
+		for (long rest = chosen; rest != 0; rest &= rest - 1) {
+			if (subsetCells[Long.numberOfTrailingZeros(rest)] == index)
+				return true;
+		}
+		return false;
+	}
+}
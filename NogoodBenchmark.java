@@ -0,0 +1,120 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class measures what nogood learning (see SudokuSolver.setNogoodLimit)
+ * saves. Every puzzle of each file is solved without and with learning,
+ * a few times each, and the search nodes (guesses), backtracks, guess levels
+ * skipped by backjumping, values removed by nogoods, nogoods evicted and the
+ * best time of all puzzles of the file together are printed for both. Every
+ * solution is checked.
+ *
+ * $ java PuzzleGenerator hard16.txt --count 20 --dimension 16
+ * $ java NogoodBenchmark hard16.txt sampleInput5.txt --nogoods 2000
+ *
+ * @author devankarsann
+ */
+
+public class NogoodBenchmark {
+
+	/**
+	 * This is the main method of the benchmark.
+	 *
+	 * @param args, optionally "--reps n" (3 by default), "--nogoods n" (1000
+	 * by default), "--strategies list" (none by default) and the puzzle files,
+	 * the samples of GridSizeBenchmark by default
+	 * @throws IOException
+	 */
+	public static void main(String[] args) throws IOException {
+		int repetitions = 3;
+		int limit = 1000;
+		String strategies = "none";
+		String[] files = new String[args.length];
+		int numFiles = 0;
+		for (int i = 0; i < args.length; i++) {
+			if (args[i].equals("--reps") && i + 1 < args.length)
+				repetitions = Integer.parseInt(args[++i]);
+			else if (args[i].equals("--nogoods") && i + 1 < args.length)
+				limit = Integer.parseInt(args[++i]);
+			else if (args[i].equals("--strategies") && i + 1 < args.length)
+				strategies = args[++i];
+			else
+				files[numFiles++] = args[i];
+		}
+		if (numFiles == 0) {
+			files = GridSizeBenchmark.SAMPLES;
+			numFiles = files.length;
+		}
+
+		System.out.printf(" %-26s %8s %-8s %10s %10s %8s %8s %8s %10s%n", "puzzles", "count", "nogoods", "guesses",
+				"backtracks", "skipped", "pruned", "evicted", "time (ms)");
+		for (int f = 0; f < numFiles; f++) {
+			List<int[]> puzzles = new ArrayList<int[]>();
+			PuzzleReader reader = new PuzzleReader(files[f]);
+			int[] cells;
+			while ((cells = reader.next()) != null)
+				puzzles.add(cells);
+			reader.close();
+			if (puzzles.isEmpty()) {
+				System.out.println(" " + files[f] + ": no puzzle found");
+				continue;
+			}
+			long[] off = run(puzzles, 0, strategies, repetitions);
+			long[] on = run(puzzles, limit, strategies, repetitions);
+			print(files[f], puzzles.size(), "off", off);
+			print(files[f], puzzles.size(), String.valueOf(limit), on);
+			System.out.printf(" %-26s %8s %-8s %9.1f%% %10s %8s %8s %8s %9.1f%%%n", "", "", "saved",
+					100.0 * (off[0] - on[0]) / Math.max(1, off[0]), "", "", "", "", 100.0 * (off[5] - on[5]) / Math.max(1, off[5]));
+		}
+	}
+
+	/**
+	 * This method solves every puzzle 2 * repetitions times, the first half to
+	 * let the JVM compile the solving methods, and returns the guesses,
+	 * backtracks, skipped levels, pruned values and evicted nogoods of one
+	 * round and the best time of a round in nanoseconds.
+	 *
+	 * @return long[]
+	 * @throws IOException
+	 */
+	private static long[] run(List<int[]> puzzles, int limit, String strategies, int repetitions) throws IOException {
+		SudokuSolver solver = new SudokuSolver();
+		solver.setStrategies(EliminationStrategy.createAll(strategies));
+		solver.setNogoodLimit(limit);
+		long[] counts = new long[6];
+		long best = Long.MAX_VALUE;
+		for (int r = 0; r < 2 * repetitions; r++) {
+			long elapsed = 0;
+			long[] round = new long[5];
+			for (int[] puzzle : puzzles) {
+				int dimension = (int) Math.round(Math.sqrt(puzzle.length));
+				long start = System.nanoTime();
+				int[] solution = solver.solve(puzzle, dimension);
+				elapsed += System.nanoTime() - start;
+				if (solution != null && SudokuEngine.isSolutionOf(puzzle, solution, dimension) == false)
+					throw new IllegalStateException("wrong solution with " + limit + " nogoods");
+				SolveStats stats = solver.getStats();
+				round[0] += stats.getGuesses();
+				round[1] += stats.getBacktracks();
+				round[2] += stats.getLevelsSkipped();
+				round[3] += stats.getNogoodPrunes();
+				if (solver.getNogoods() != null)
+					round[4] += solver.getNogoods().getNumEvicted();
+			}
+			System.arraycopy(round, 0, counts, 0, round.length);
+			if (r >= repetitions)
+				best = Math.min(best, elapsed);
+		}
+		counts[5] = best;
+		return counts;
+	}
+
+	/**
+	 * This method prints one line of the table.
+	 */
+	private static void print(String file, int count, String nogoods, long[] counts) {
+		System.out.printf(" %-26s %8d %-8s %10d %10d %8d %8d %8d %10.3f%n", file, count, nogoods, counts[0], counts[1],
+				counts[2], counts[3], counts[4], counts[5] / 1e6);
+	}
+}
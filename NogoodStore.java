@@ -0,0 +1,202 @@
+import java.util.Arrays;
+
+/**
+ * This class holds the nogoods learned by a SudokuSolver during one solve. A
+ * nogood is a set of values (Cell and value) which can't all be set together
+ * in a solution. Each one is stored as a list of literals, a literal being
+ * cell * (dimension + 1) + value like the candidate counters, and every
+ * literal knows the nogoods it belongs to, so the nogoods of one Cell are
+ * found without looking at the others.
+ *
+ * The store is bounded: when it is full, a new nogood takes the place of an
+ * old one which didn't prune anything since the eviction hand last passed it
+ * (second chance, or "clock" eviction). A nogood which prunes is marked as
+ * used and survives one more round.
+ *
+ * @author devankarsann
+ */
+
+public class NogoodStore {
+
+	// longer nogoods are hardly ever complete again, they are not stored
+	static final int MAX_LENGTH = 32;
+
+	private final int capacity;
+	// literals of nogood n are literals[n * MAX_LENGTH] to literals[n * MAX_LENGTH + lengths[n] - 1]
+	private final int[] literals;
+	private final int[] lengths;
+	private final boolean[] used;
+	private int size = 0;
+	private int hand = 0;
+	// nogoods which contain a literal, and how many
+	private int[][] byLiteral = new int[0][];
+	private int[] numByLiteral = new int[0];
+	private long numLearned = 0;
+	private long numEvicted = 0;
+
+	/**
+	 * This is the constructor method for a NogoodStore object.
+	 *
+	 * @param capacity, largest number of nogoods kept at once
+	 */
+	public NogoodStore(int capacity) {
+		if (capacity < 1)
+			throw new IllegalArgumentException("a nogood store needs room for at least one nogood, not " + capacity);
+		this.capacity = capacity;
+		literals = new int[capacity * MAX_LENGTH];
+		lengths = new int[capacity];
+		used = new boolean[capacity];
+	}
+
+	/**
+	 * This method empties the store for a new puzzle with 'numLiterals'
+	 * possible literals, i.e. dimension * dimension * (dimension + 1).
+	 *
+	 * @param numLiterals, number of possible literals
+	 */
+	void clear(int numLiterals) {
+		if (byLiteral.length != numLiterals) {
+			byLiteral = new int[numLiterals][];
+			numByLiteral = new int[numLiterals];
+		} else {
+			Arrays.fill(numByLiteral, 0);
+		}
+		size = 0;
+		hand = 0;
+		numLearned = 0;
+		numEvicted = 0;
+	}
+
+	/**
+	 * This method stores a nogood, in place of an old one if the store is
+	 * full. Nogoods longer than MAX_LENGTH are left out.
+	 *
+	 * @param nogood, its literals
+	 * @param length, number of literals
+	 * @return boolean, true if it was stored
+	 */
+	boolean add(int[] nogood, int length) {
+		if (length == 0 || length > MAX_LENGTH)
+			return false;
+		int n;
+		if (size < capacity) {
+			n = size++;
+		} else {
+			while (used[hand]) {
+				used[hand] = false;
+				hand = hand + 1 == capacity ? 0 : hand + 1;
+			}
+			n = hand;
+			hand = hand + 1 == capacity ? 0 : hand + 1;
+			remove(n);
+			numEvicted++;
+		}
+		System.arraycopy(nogood, 0, literals, n * MAX_LENGTH, length);
+		lengths[n] = length;
+		used[n] = false;
+		for (int k = 0; k < length; k++) {
+			int literal = nogood[k];
+			int[] list = byLiteral[literal];
+			if (list == null)
+				list = byLiteral[literal] = new int[4];
+			else if (numByLiteral[literal] == list.length)
+				list = byLiteral[literal] = Arrays.copyOf(list, list.length * 2);
+			list[numByLiteral[literal]++] = n;
+		}
+		numLearned++;
+		return true;
+	}
+
+	/**
+	 * This method takes a nogood out of the lists of its literals.
+	 *
+	 * @param n, number of the nogood
+	 */
+	private void remove(int n) {
+		for (int k = n * MAX_LENGTH; k < n * MAX_LENGTH + lengths[n]; k++) {
+			int[] list = byLiteral[literals[k]];
+			int last = --numByLiteral[literals[k]];
+			for (int i = 0; i <= last; i++) {
+				if (list[i] == n) {
+					list[i] = list[last];
+					break;
+				}
+			}
+		}
+	}
+
+	/**
+	 * This method returns the number of nogoods a literal belongs to; they
+	 * are nogoodOf(literal, 0) and so on.
+	 *
+	 * @param literal, cell * (dimension + 1) + value
+	 * @return int
+	 */
+	int numNogoods(int literal) {
+		return numByLiteral[literal];
+	}
+
+	/**
+	 * This method returns the number of the i-th nogood of a literal.
+	 *
+	 * @return int
+	 */
+	int nogoodOf(int literal, int i) {
+		return byLiteral[literal][i];
+	}
+
+	/**
+	 * This method returns the number of literals of a nogood.
+	 *
+	 * @return int
+	 */
+	int length(int n) {
+		return lengths[n];
+	}
+
+	/**
+	 * This method returns the k-th literal of a nogood.
+	 *
+	 * @return int
+	 */
+	int literal(int n, int k) {
+		return literals[n * MAX_LENGTH + k];
+	}
+
+	/**
+	 * This method marks a nogood as used, so the next eviction passes it by.
+	 *
+	 * @param n, number of the nogood
+	 */
+	void markUsed(int n) {
+		used[n] = true;
+	}
+
+	/**
+	 * This method returns the number of nogoods stored since the last clear,
+	 * evicted ones included.
+	 *
+	 * @return long
+	 */
+	public long getNumLearned() {
+		return numLearned;
+	}
+
+	/**
+	 * This method returns the number of nogoods evicted since the last clear.
+	 *
+	 * @return long
+	 */
+	public long getNumEvicted() {
+		return numEvicted;
+	}
+
+	/**
+	 * This method returns the largest number of nogoods kept at once.
+	 *
+	 * @return int
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+}
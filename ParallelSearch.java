@@ -0,0 +1,176 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * This class is one subtree of the parallel search of a SudokuSolver. When
+ * the solution techniques get stuck and a guess has to be made, the search is
+ * split into one ParallelSearch task per possible value of the guessed Cell.
+ * Each task continues on its own copy of the grid, and may split again until
+ * the split depth is used up. The tasks run on a ForkJoinPool, so idle
+ * workers steal the subtrees that are still waiting. As soon as one task
+ * finds a solution, the shared 'cancelled' flag stops all the others.
+ *
+ * The main method compares the solve time of a puzzle with and without the
+ * parallel search. The parallel search is only used when it is asked for
+ * (see SudokuSolver.setParallelism), since every task copies the grid and a
+ * speedup needs several processors.
+ *
+ * @author devankarsann
+ */
+
+public class ParallelSearch extends RecursiveTask<int[]> {
+
+	private static final long serialVersionUID = 1L;
+
+	// tasks are never serialized, so the solvers are left out
+	private transient SudokuSolver parent;
+	private int row;
+	private int col;
+	private int value;
+	// the copy of the grid this task works on, null if it never started
+	private transient SudokuSolver solver;
+
+	/**
+	 * This is the constructor method for a ParallelSearch task.
+	 *
+	 * @param parent, SudokuSolver whose grid is copied, it waits for the task
+	 * @param row, row index of the guessed Cell
+	 * @param col, column index of the guessed Cell
+	 * @param value, the value this task tries
+	 */
+	ParallelSearch(SudokuSolver parent, int row, int col, int value) {
+		this.parent = parent;
+		this.row = row;
+		this.col = col;
+		this.value = value;
+	}
+
+	/**
+	 * This method tries every possible value of a Cell in its own task and
+	 * returns the solution of the first task which finds one, or null if none
+	 * of them does.
+	 *
+	 * @param parent, SudokuSolver which is stuck, with no pending guesses
+	 * @param row, row index of the Cell to guess
+	 * @param col, column index of the Cell to guess
+	 * @return int[], values row by row
+	 */
+	static int[] search(SudokuSolver parent, int row, int col) {
+		ArrayList<ParallelSearch> tasks = new ArrayList<ParallelSearch>();
+		Cell cell = parent.grid[row][col];
+		for (int v = cell.getLowestPossible(); v != 0; v = cell.getNextPossible(v))
+			tasks.add(new ParallelSearch(parent, row, col, v));
+		if (ForkJoinTask.inForkJoinPool()) {
+			ForkJoinTask.invokeAll(tasks);
+		} else {
+			parent.pool.invoke(new RecursiveTask<Void>() {
+				private static final long serialVersionUID = 1L;
+
+				protected Void compute() {
+					ForkJoinTask.invokeAll(tasks);
+					return null;
+				}
+			});
+		}
+		// the counters of every task which ran are added to the parent's, the
+		// split itself is one guess level
+		for (ParallelSearch task : tasks) {
+			if (task.solver != null) {
+				parent.stats.guesses++;
+				parent.stats.add(task.solver.stats, parent.numGuesses + 1);
+			}
+		}
+		for (ParallelSearch task : tasks) {
+			if (task.getRawResult() != null)
+				return task.getRawResult();
+		}
+		return null;
+	}
+
+	/**
+	 * This method copies the grid of the parent, sets the value of this task
+	 * and solves the rest, splitting again if the split depth allows it.
+	 *
+	 * @return int[], the solution, or null
+	 */
+	protected int[] compute() {
+		if (parent.cancelled.get())
+			return null;
+		solver = new SudokuSolver();
+		solver.copyFrom(parent);
+		solver.pool = parent.pool;
+		solver.splitDepth = parent.splitDepth - 1;
+		solver.cancelled = parent.cancelled;
+		try {
+			solver.assign(row, col, value);
+			if (!solver.runSolutionTechniques())
+				return null;
+			// the solution may have been found by a task this one split into,
+			// which already set the flag
+			parent.cancelled.set(true);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		int dimension = solver.dimension;
+		int[] solution = new int[dimension * dimension];
+		for (int i = 0; i < solution.length; i++)
+			solution[i] = solver.getCellValue(i / dimension, i % dimension);
+		return solution;
+	}
+
+	/**
+	 * This main method solves a puzzle file sequentially and with the parallel
+	 * search, several times each, and prints the best times and the speedup.
+	 *
+	 * @param args, puzzle file, optionally the number of threads (all
+	 * processors by default), the split depth (2 by default) and the number of
+	 * repetitions (5 by default)
+	 * @throws IOException
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 1) {
+			System.out.println("usage: java ParallelSearch <puzzle file> [threads] [split depth] [repetitions]");
+			return;
+		}
+		int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+		int splitDepth = args.length > 2 ? Integer.parseInt(args[2]) : 2;
+		int repetitions = args.length > 3 ? Integer.parseInt(args[3]) : 5;
+
+		PuzzleReader reader = new PuzzleReader(args[0]);
+		int[] cells = reader.next();
+		reader.close();
+		int dimension = (int) Math.round(Math.sqrt(cells.length));
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		int processors = Runtime.getRuntime().availableProcessors();
+		if (processors < Math.min(threads, 2))
+			System.out.println(" note: " + processors + " processor available, the threads can only take turns");
+
+		long sequential = Long.MAX_VALUE;
+		long parallel = Long.MAX_VALUE;
+		for (int r = 0; r < repetitions; r++) {
+			long start = System.nanoTime();
+			int[] first = new SudokuSolver().solve(cells, dimension);
+			sequential = Math.min(sequential, System.nanoTime() - start);
+
+			SudokuSolver solver = new SudokuSolver();
+			solver.setParallelism(pool, splitDepth);
+			start = System.nanoTime();
+			int[] second = solver.solve(cells, dimension);
+			parallel = Math.min(parallel, System.nanoTime() - start);
+
+			if (!SudokuEngine.isSolutionOf(cells, first, dimension) || !SudokuEngine.isSolutionOf(cells, second, dimension))
+				System.out.println(" repetition " + r + ": a solution is missing or not valid");
+		}
+		pool.shutdown();
+
+		System.out.printf(" %dx%d puzzle, %d threads, split depth %d, best of %d%n", dimension, dimension, threads, splitDepth, repetitions);
+		System.out.printf(" sequential: %.1f ms%n", sequential / 1e6);
+		System.out.printf(" parallel:   %.1f ms%n", parallel / 1e6);
+		System.out.printf(" speedup:    %.2fx%n", (double) sequential / parallel);
+	}
+}
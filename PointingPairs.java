@@ -0,0 +1,48 @@
+/**
+ * This is the pointing pairs strategy. If a value is possible in only one
+ * row (or column) of a subgrid, the value has to be in that part of the row,
+ * so it is removed from the rest of the row outside the subgrid. The same
+ * goes for three Cells in a line (pointing triples).
+ *
+ * @author devankarsann
+ */
+
+public class PointingPairs implements EliminationStrategy {
+
+	public String getName() {
+		return "pointing";
+	}
+
+	public boolean apply(SudokuSolver solver) {
+		int dimension = solver.dimension;
+		Topology topology = solver.topology;
+		int boxSize = topology.boxSize;
+		boolean removed = false;
+		for (int unit = 2 * dimension; unit < 3 * dimension; unit++) {
+			for (int value = 1; value <= dimension; value++) {
+				if (solver.numPlaced(unit, value) > 0)
+					continue;
+				long positions = solver.positionsOf(unit, value);
+				if (Long.bitCount(positions) < 2)
+					continue;
+				// the Cells of a subgrid are numbered row by row in Topology
+				int first = Long.numberOfTrailingZeros(positions);
+				boolean sameRow = true;
+				boolean sameColumn = true;
+				for (long rest = positions; rest != 0; rest &= rest - 1) {
+					int n = Long.numberOfTrailingZeros(rest);
+					if (n / boxSize != first / boxSize)
+						sameRow = false;
+					if (n % boxSize != first % boxSize)
+						sameColumn = false;
+				}
+				int cell = topology.unitCells[unit * dimension + first];
+				if (sameRow && solver.eliminateOutside(topology.rowOf[cell], unit, value))
+					removed = true;
+				if (sameColumn && solver.eliminateOutside(dimension + topology.colOf[cell], unit, value))
+					removed = true;
+			}
+		}
+		return removed;
+	}
+}
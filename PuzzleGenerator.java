@@ -0,0 +1,397 @@
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * This is the puzzle generator of my Sudoku solving program. Each puzzle
+ * starts as a filled grid: the subgrids on the diagonal are filled with
+ * random permutations (they share no rows or columns), the SudokuSolver
+ * fills in the rest, and the grid is shuffled with changes which keep it
+ * valid (relabeling the values, swapping rows within a band, bands, columns
+ * within a stack and stacks, and transposing). Then the givens are removed
+ * one by one in random order, and each removal is kept only if the puzzle
+ * keeps exactly one solution, i.e. SudokuSolver.countSolutions finds no
+ * solution with another value in the Cell which was emptied.
+ *
+ * Every finished puzzle is graded by solving it once more with every
+ * elimination strategy switched on (see SolveStats):
+ *
+ * easy     values set by part 2 (one possible value) only
+ * medium   part 3 (one possible Cell) was needed as well
+ * hard     elimination strategies were needed, but no guesses
+ * expert   guesses were needed
+ *
+ * Removing givens down to a minimal puzzle gets slow for 25x25 and larger
+ * grids, since the searches get deeper with every given removed, so
+ * "--min-givens n" stops the removal once n givens are left.
+ *
+ * Puzzle number i only depends on the seed and i, so the same seed gives the
+ * same puzzles in the same order with any number of worker threads.
+ *
+ * $ java PuzzleGenerator puzzles.txt --count 1000 --seed 42 --grades grades.csv
+ *
+ * @author devankarsann
+ */
+
+public class PuzzleGenerator {
+
+	static final String[] GRADES = { "easy", "medium", "hard", "expert" };
+	static final int EASY = 0;
+	static final int MEDIUM = 1;
+	static final int HARD = 2;
+	static final int EXPERT = 3;
+	// number of puzzles per worker which may be generated ahead of the output
+	static final int PUZZLES_IN_FLIGHT = 64;
+
+	/**
+	 * This class is one generated puzzle and its grade.
+	 */
+	static class Puzzle {
+		int[] cells;
+		int[] solution;
+		int dimension;
+		int numGivens;
+		int grade;
+		long guesses;
+		// part 2, part 3 and the elimination strategies which were used
+		String techniques;
+	}
+
+	private int dimension;
+	private long seed;
+	// the removal of givens stops when this many are left
+	private int minGivens = 0;
+	private Random random;
+	// one SudokuSolver counts solutions while the givens are removed, the
+	// other one grades the puzzle with every elimination strategy
+	private SudokuSolver counter = new SudokuSolver();
+	private SudokuSolver grader = new SudokuSolver();
+
+	/**
+	 * This is the constructor method for a PuzzleGenerator object. A
+	 * PuzzleGenerator is used by one thread at a time.
+	 *
+	 * @param dimension, number of rows and columns, a square number
+	 * @param seed, the same seed gives the same puzzles
+	 */
+	public PuzzleGenerator(int dimension, long seed) {
+		Topology.forDimension(dimension);
+		this.dimension = dimension;
+		this.seed = seed;
+		grader.setStrategies(EliminationStrategy.createAll("all"));
+	}
+
+	/**
+	 * This method makes the removal of givens stop once 'minGivens' are left.
+	 * By default givens are removed until none of them can be.
+	 *
+	 * @param minGivens, number of givens the puzzles keep at least
+	 */
+	public void setMinGivens(int minGivens) {
+		this.minGivens = minGivens;
+	}
+
+	/**
+	 * This is the main method of the puzzle generator. The puzzles are written
+	 * to the output file one per line (see PuzzleReader), so BatchSolver can
+	 * read them.
+	 *
+	 * @param args, output file, optionally "--count n" (10), "--dimension d" (9),
+	 * "--seed s" (the time), "--threads n" (all processors), "--min-givens n" (0), "--grade name" to
+	 * keep only puzzles of one grade, and "--grades file" to write the grade of
+	 * every puzzle as CSV
+	 * @throws IOException
+	 * @throws InterruptedException
+	 */
+	public static void main(String[] args) throws IOException, InterruptedException {
+		String output = null;
+		String gradesFile = null;
+		int count = 10;
+		int dimension = 9;
+		long seed = System.nanoTime();
+		int threads = Runtime.getRuntime().availableProcessors();
+		int wantedGrade = -1;
+		int minGivens = 0;
+		for (int i = 0; i < args.length; i++) {
+			if (args[i].equals("--count") && i + 1 < args.length)
+				count = Integer.parseInt(args[++i]);
+			else if (args[i].equals("--dimension") && i + 1 < args.length)
+				dimension = Integer.parseInt(args[++i]);
+			else if (args[i].equals("--seed") && i + 1 < args.length)
+				seed = Long.parseLong(args[++i]);
+			else if (args[i].equals("--threads") && i + 1 < args.length)
+				threads = Integer.parseInt(args[++i]);
+			else if (args[i].equals("--min-givens") && i + 1 < args.length)
+				minGivens = Integer.parseInt(args[++i]);
+			else if (args[i].equals("--grade") && i + 1 < args.length)
+				wantedGrade = gradeOf(args[++i]);
+			else if (args[i].equals("--grades") && i + 1 < args.length)
+				gradesFile = args[++i];
+			else
+				output = args[i];
+		}
+		if (output == null) {
+			System.out.println("usage: java PuzzleGenerator <output file> [--count n] [--dimension d] [--seed s] [--threads n] [--min-givens n] [--grade easy|medium|hard|expert] [--grades file]");
+			return;
+		}
+		// throws an exception if the dimension isn't a square number
+		Topology.forDimension(dimension);
+
+		final int size = dimension;
+		final long start = seed;
+		final int fewestGivens = minGivens;
+		// each worker thread keeps reusing its own generator
+		final ThreadLocal<PuzzleGenerator> generators = new ThreadLocal<PuzzleGenerator>();
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		Writer writer = new BufferedWriter(new FileWriter(output), 1 << 16);
+		Writer grades = gradesFile == null ? null : new BufferedWriter(new FileWriter(gradesFile), 1 << 16);
+		if (grades != null)
+			grades.write("puzzle,grade,givens,guesses,techniques\n");
+
+		// futures are kept in puzzle order, the oldest one is written first
+		ArrayDeque<Future<Puzzle>> inFlight = new ArrayDeque<Future<Puzzle>>();
+		int[] numPerGrade = new int[GRADES.length];
+		long totalGivens = 0;
+		int numWritten = 0;
+		long index = 0;
+		long startNanos = System.nanoTime();
+		try {
+			while (numWritten < count) {
+				// without a grade filter no more puzzles than needed are started
+				while (inFlight.size() < threads * PUZZLES_IN_FLIGHT && (wantedGrade >= 0 || index < count)) {
+					final long number = index++;
+					inFlight.add(pool.submit(new Callable<Puzzle>() {
+						public Puzzle call() throws IOException {
+							PuzzleGenerator generator = generators.get();
+							if (generator == null) {
+								generator = new PuzzleGenerator(size, start);
+								generator.setMinGivens(fewestGivens);
+								generators.set(generator);
+							}
+							return generator.generate(number);
+						}
+					}));
+				}
+				Puzzle puzzle = inFlight.poll().get();
+				numPerGrade[puzzle.grade]++;
+				if (wantedGrade >= 0 && puzzle.grade != wantedGrade)
+					continue;
+				numWritten++;
+				totalGivens += puzzle.numGivens;
+				writer.write(PuzzleReader.toLine(puzzle.cells));
+				writer.write('\n');
+				if (grades != null)
+					grades.write(numWritten + "," + GRADES[puzzle.grade] + "," + puzzle.numGivens + "," + puzzle.guesses + "," + puzzle.techniques + "\n");
+			}
+		} catch (ExecutionException e) {
+			throw new IOException("a puzzle could not be generated", e.getCause());
+		} finally {
+			pool.shutdownNow();
+			writer.close();
+			if (grades != null)
+				grades.close();
+		}
+
+		double seconds = (System.nanoTime() - startNanos) / 1e9;
+		System.out.println("\n puzzles: " + numWritten + " (seed " + seed + ")");
+		System.out.printf(" average givens: %.1f%n", numWritten == 0 ? 0.0 : (double) totalGivens / numWritten);
+		for (int g = 0; g < GRADES.length; g++)
+			System.out.println(" " + GRADES[g] + ": " + numPerGrade[g]);
+		System.out.printf(" time: %.3f s, %.1f puzzles/s%n", seconds, numWritten / seconds);
+	}
+
+	/**
+	 * This method returns the number of a grade.
+	 *
+	 * @param name, one of GRADES
+	 * @return int
+	 */
+	static int gradeOf(String name) {
+		for (int g = 0; g < GRADES.length; g++) {
+			if (GRADES[g].equals(name))
+				return g;
+		}
+		throw new IllegalArgumentException("unknown grade: " + name);
+	}
+
+	/**
+	 * This method generates puzzle number 'number' of the seed.
+	 *
+	 * @param number, any number, e.g. the position of the puzzle in a pack
+	 * @return Puzzle
+	 * @throws IOException
+	 */
+	public Puzzle generate(long number) throws IOException {
+		// every puzzle gets its own random numbers, mixed from the seed and its number
+		random = new Random(mix(seed + mix(number)));
+		Puzzle puzzle = new Puzzle();
+		puzzle.dimension = dimension;
+		puzzle.solution = fillGrid();
+		puzzle.cells = removeGivens(puzzle.solution);
+		grade(puzzle);
+		return puzzle;
+	}
+
+	/**
+	 * This method returns a random filled grid.
+	 *
+	 * @return int[]
+	 * @throws IOException
+	 */
+	int[] fillGrid() throws IOException {
+		int boxSize = Topology.forDimension(dimension).boxSize;
+		int[] cells = new int[dimension * dimension];
+		// the subgrids on the diagonal share no rows or columns, so any
+		// permutations of the values can be placed in them
+		for (int box = 0; box < boxSize; box++) {
+			int[] values = permutation(dimension, 1);
+			for (int n = 0; n < dimension; n++) {
+				int row = box * boxSize + n / boxSize;
+				int col = box * boxSize + n % boxSize;
+				cells[row * dimension + col] = values[n];
+			}
+		}
+		int[] filled = counter.solve(cells, dimension);
+		if (filled == null)
+			throw new IOException("the diagonal subgrids could not be completed");
+
+		// relabel the values, shuffle rows and columns within their bands and
+		// stacks, shuffle the bands and stacks, and transpose half of the grids
+		int[] labels = permutation(dimension, 1);
+		int[] rows = shuffledLines(boxSize);
+		int[] cols = shuffledLines(boxSize);
+		boolean transpose = random.nextBoolean();
+		int[] grid = new int[cells.length];
+		for (int i = 0; i < dimension; i++) {
+			for (int j = 0; j < dimension; j++) {
+				int value = labels[filled[rows[i] * dimension + cols[j]] - 1];
+				if (transpose)
+					grid[j * dimension + i] = value;
+				else
+					grid[i * dimension + j] = value;
+			}
+		}
+		return grid;
+	}
+
+	/**
+	 * This method removes givens from a filled grid in random order, as long
+	 * as the puzzle keeps exactly one solution. Every given is tried once, so
+	 * no single given of the result can be removed.
+	 *
+	 * @param solution, a filled grid
+	 * @return int[], the puzzle
+	 * @throws IOException
+	 */
+	int[] removeGivens(int[] solution) throws IOException {
+		int[] cells = solution.clone();
+		int[] order = permutation(cells.length, 0);
+		int numGivens = cells.length;
+		for (int index : order) {
+			if (numGivens <= minGivens)
+				break;
+			cells[index] = 0;
+			// the puzzle had one solution, so it still has exactly one unless
+			// there is a solution with another value in this Cell
+			counter.load(cells, dimension);
+			counter.eliminate(index, solution[index]);
+			if (counter.countSolutions(1) != 0)
+				cells[index] = solution[index];
+			else
+				numGivens--;
+		}
+		return cells;
+	}
+
+	/**
+	 * This method grades a puzzle by the solution techniques needed to solve it.
+	 *
+	 * @param puzzle, a puzzle with exactly one solution
+	 * @throws IOException
+	 */
+	void grade(Puzzle puzzle) throws IOException {
+		int numGivens = 0;
+		for (int value : puzzle.cells) {
+			if (value != 0)
+				numGivens++;
+		}
+		puzzle.numGivens = numGivens;
+		grader.solve(puzzle.cells, dimension);
+		SolveStats stats = grader.getStats();
+		puzzle.guesses = stats.getGuesses();
+		String techniques = "naked-singles";
+		if (stats.getHiddenSingles() > 0)
+			techniques += " hidden-singles";
+		for (int s = 0; s < grader.strategies.length; s++) {
+			if (grader.strategyHits[s] > 0)
+				techniques += " " + grader.strategies[s].getName();
+		}
+		if (stats.getGuesses() > 0)
+			techniques += " guesses";
+		puzzle.techniques = techniques;
+		if (stats.getGuesses() > 0)
+			puzzle.grade = EXPERT;
+		else if (stats.getStrategyEliminations() > 0)
+			puzzle.grade = HARD;
+		else if (stats.getHiddenSingles() > 0)
+			puzzle.grade = MEDIUM;
+		else
+			puzzle.grade = EASY;
+	}
+
+	/**
+	 * This method returns the numbers from 'first' to 'first + length - 1' in
+	 * random order.
+	 *
+	 * @return int[]
+	 */
+	private int[] permutation(int length, int first) {
+		int[] values = new int[length];
+		for (int i = 0; i < length; i++)
+			values[i] = first + i;
+		for (int i = length - 1; i > 0; i--) {
+			int j = random.nextInt(i + 1);
+			int temp = values[i];
+			values[i] = values[j];
+			values[j] = temp;
+		}
+		return values;
+	}
+
+	/**
+	 * This method returns the row (or column) numbers in an order which keeps
+	 * the grid valid: whole bands are shuffled, and the lines within each band.
+	 *
+	 * @return int[]
+	 */
+	private int[] shuffledLines(int boxSize) {
+		int[] bands = permutation(boxSize, 0);
+		int[] lines = new int[boxSize * boxSize];
+		for (int b = 0; b < boxSize; b++) {
+			int[] within = permutation(boxSize, 0);
+			for (int n = 0; n < boxSize; n++)
+				lines[b * boxSize + n] = bands[b] * boxSize + within[n];
+		}
+		return lines;
+	}
+
+	/**
+	 * This method scrambles the bits of a number (the finalizer of SplitMix64),
+	 * so neighboring numbers give unrelated seeds.
+	 *
+	 * @return long
+	 */
+	private static long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+}
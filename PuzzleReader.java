@@ -0,0 +1,468 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * This class reads Sudoku puzzles one after another from a text file which
+ * may contain many of them. Two formats are understood, and they can be mixed:
+ *
+ * the format described in the README, a line with the number of rows and
+ * columns (e.g. "9 9") followed by the rows of the grid, 0 for unknown values
+ *
+ * one puzzle per line, dimension * dimension characters read row by row
+ * (81 for 9x9). '0' or '.' is an unknown value, '1' to '9' are the values 1
+ * to 9 and letters are the values from 10 up ('A' = 10, 'G' = 16). Up to
+ * 35x35 lower case letters mean the same as upper case ones; larger grids
+ * need both, 'A' to 'Z' are 10 to 35 and 'a' to 'z' are 36 to 61 ('n' = 49)
+ *
+ * Blank lines are skipped, and everything after a '#' is a comment, so a
+ * puzzle line or a row of a grid may end with one. Text after a grid, such
+ * as the attribution lines at the end of the sample inputs, is skipped up to
+ * the next puzzle. Anything else is reported with its line and column: a line
+ * without spaces which is about as long as a puzzle (see isPuzzleLine) is
+ * taken for a puzzle, so a wrong character or a wrong length in it is
+ * reported instead of skipping the puzzle. After a FormatException the
+ * reader goes on with the next line, so a caller may report a malformed
+ * puzzle and keep reading.
+ *
+ * The file is read in blocks from a FileChannel into one reused buffer and
+ * scanned byte by byte, each line into one reused byte array, so reading a
+ * corpus of any size creates no garbage besides the values of the puzzles.
+ * read(int[]) doesn't even create those.
+ *
+ * @author devankarsann
+ */
+
+public class PuzzleReader {
+
+	private ReadableByteChannel channel;
+	// block of the file which is being scanned, bytes from 'position' to 'limit' are left
+	private byte[] block = new byte[1 << 16];
+	private ByteBuffer buffer = ByteBuffer.wrap(block);
+	private int position = 0;
+	private int limit = 0;
+	// the current line, without its line break
+	private byte[] line = new byte[256];
+	private int lineLength = 0;
+	private int lineNumber = 0;
+	// true while the lines after a grid are skipped as its trailing text
+	private boolean afterGrid = false;
+	// values of the last puzzle read
+	private int[] values = new int[81];
+
+	// value of each byte in the one line format up to 35x35, -1 if it can't be
+	// part of a puzzle, and SIZES[n] is n if n values make a square grid of
+	// square subgrids (16, 81, 256, ...), so no line needs a square root
+	private static final int[] VALUES = new int[256];
+	private static final int[] SIZES = new int[62 * 62 + 1];
+	static {
+		for (int b = 0; b < 256; b++)
+			VALUES[b] = charToValue((char) b, 35);
+		for (int boxSize = 1; boxSize * boxSize <= 61; boxSize++)
+			SIZES[boxSize * boxSize * boxSize * boxSize] = boxSize * boxSize * boxSize * boxSize;
+	}
+
+	/**
+	 * This class is the exception for a malformed puzzle or a line which is
+	 * not part of a puzzle. The reader stays usable: the next puzzle is read
+	 * from the line after it, or after the rest of a malformed grid.
+	 */
+	public static class FormatException extends IOException {
+		private static final long serialVersionUID = 1L;
+
+		FormatException(String message) {
+			super(message);
+		}
+	}
+
+	/**
+	 * This is the constructor method for a PuzzleReader object which reads a file.
+	 *
+	 * @param fileName, path of the puzzle file
+	 * @throws IOException
+	 */
+	public PuzzleReader(String fileName) throws IOException {
+		this(FileChannel.open(Paths.get(fileName), StandardOpenOption.READ));
+	}
+
+	/**
+	 * This is the constructor method for a PuzzleReader object which reads a
+	 * stream, e.g. System.in.
+	 *
+	 * @param in, source of the puzzle text
+	 */
+	public PuzzleReader(InputStream in) {
+		this(Channels.newChannel(in));
+	}
+
+	private PuzzleReader(ReadableByteChannel channel) {
+		this.channel = channel;
+	}
+
+	/**
+	 * This method returns the values of the next puzzle row by row, 0 for unknown
+	 * values, or null when there are no more puzzles. The dimension of the
+	 * puzzle is the square root of the length of the array.
+	 *
+	 * @return int[]
+	 * @throws IOException, a FormatException if a puzzle is malformed or a
+	 * line is not part of a puzzle
+	 */
+	public int[] next() throws IOException {
+		int count = scanPuzzle();
+		return count < 0 ? null : Arrays.copyOf(values, count);
+	}
+
+	/**
+	 * This method reads the next puzzle into an array which is reused from
+	 * puzzle to puzzle.
+	 *
+	 * @param cells, array of at least dimension * dimension values
+	 * @return int, dimension * dimension, or -1 when there are no more puzzles
+	 * @throws IOException, also if the puzzle doesn't fit into 'cells'
+	 */
+	public int read(int[] cells) throws IOException {
+		int count = scanPuzzle();
+		if (count > cells.length)
+			throw new IOException("line " + lineNumber + ": puzzle of " + count + " values doesn't fit into " + cells.length);
+		if (count > 0)
+			System.arraycopy(values, 0, cells, 0, count);
+		return count;
+	}
+
+	/**
+	 * This method scans lines until a puzzle was read into 'values'.
+	 *
+	 * @return int, number of values of the puzzle, or -1 at the end of the input
+	 * @throws IOException
+	 */
+	private int scanPuzzle() throws IOException {
+		while (readLine()) {
+			int end = contentEnd();
+			int start = skipSpaces(0, end);
+			if (start == end)
+				continue;
+			int dimension = readHeader(start, end);
+			if (dimension > 0) {
+				// the rest of a malformed grid is skipped like the text after a grid
+				afterGrid = true;
+				return readGrid(dimension);
+			}
+			if (isPuzzleLine(start, end)) {
+				afterGrid = false;
+				return readPuzzleLine(start, end);
+			}
+			if (afterGrid == false)
+				throw new FormatException("line " + lineNumber + ", column " + (start + 1) + ": neither a puzzle nor the header of a grid");
+		}
+		return -1;
+	}
+
+	/**
+	 * This method reads the next line into 'line', without the line break.
+	 *
+	 * @return boolean, false at the end of the input
+	 * @throws IOException
+	 */
+	private boolean readLine() throws IOException {
+		lineLength = 0;
+		boolean any = false;
+		while (true) {
+			if (position == limit) {
+				buffer.clear();
+				int read = channel.read(buffer);
+				if (read < 0) {
+					if (any)
+						lineNumber++;
+					return any;
+				}
+				position = 0;
+				limit = buffer.position();
+				continue;
+			}
+			any = true;
+			// the line is copied up to its line break, or to the end of the block
+			int end = position;
+			while (end < limit && block[end] != '\n')
+				end++;
+			int length = end - position;
+			if (lineLength + length > line.length)
+				line = Arrays.copyOf(line, Math.max(line.length * 2, lineLength + length));
+			System.arraycopy(block, position, line, lineLength, length);
+			lineLength += length;
+			if (end < limit) {
+				position = end + 1;
+				lineNumber++;
+				return true;
+			}
+			position = limit;
+		}
+	}
+
+	/**
+	 * This method returns where the content of the line ends: at a '#' comment
+	 * or at the trailing spaces.
+	 *
+	 * @return int
+	 */
+	private int contentEnd() {
+		int end = 0;
+		while (end < lineLength && line[end] != '#')
+			end++;
+		while (end > 0 && isSpace(line[end - 1]))
+			end--;
+		return end;
+	}
+
+	/**
+	 * This method returns the position of the first byte from 'pos' on which
+	 * is not a space, or 'end'.
+	 *
+	 * @return int
+	 */
+	private int skipSpaces(int pos, int end) {
+		while (pos < end && isSpace(line[pos]))
+			pos++;
+		return pos;
+	}
+
+	/**
+	 * This method returns the dimension given by a header line such as "9 9",
+	 * or 0 if the line is not a header.
+	 *
+	 * @param start, first byte of the content of the line
+	 * @param end, end of the content of the line
+	 * @return int
+	 * @throws FormatException, if the grid is larger than 49x49
+	 */
+	private int readHeader(int start, int end) throws FormatException {
+		int pos = start;
+		int rows = 0;
+		while (pos < end && isDigit(line[pos]) && rows < 1000)
+			rows = rows * 10 + (line[pos++] - '0');
+		if (pos == start || pos == end || isSpace(line[pos]) == false)
+			return 0;
+		int next = skipSpaces(pos, end);
+		pos = next;
+		int columns = 0;
+		while (pos < end && isDigit(line[pos]) && columns < 1000)
+			columns = columns * 10 + (line[pos++] - '0');
+		if (pos == next || pos != end || rows != columns)
+			return 0;
+		int boxSize = (int) Math.round(Math.sqrt(rows));
+		if (rows == 0 || boxSize * boxSize != rows)
+			return 0;
+		if (rows > SudokuEngine.MAX_DIMENSION) {
+			// the rows of the grid are skipped like the text after a grid
+			afterGrid = true;
+			throw new FormatException("line " + lineNumber + ", column " + (start + 1) + ": a " + rows + "x" + rows + " grid is larger than " + SudokuEngine.MAX_DIMENSION + "x" + SudokuEngine.MAX_DIMENSION);
+		}
+		return rows;
+	}
+
+	/**
+	 * This method reads the rows of a grid after its header line.
+	 *
+	 * @param dimension, number of rows and columns
+	 * @return int, number of values
+	 * @throws IOException
+	 */
+	private int readGrid(int dimension) throws IOException {
+		int size = dimension * dimension;
+		if (values.length < size)
+			values = new int[size];
+		int count = 0;
+		while (count < size) {
+			if (readLine() == false)
+				throw new FormatException("line " + lineNumber + ": grid ended after " + count + " of " + size + " values");
+			int end = contentEnd();
+			int pos = 0;
+			while (pos < end && count < size) {
+				byte c = line[pos];
+				if (isSpace(c)) {
+					pos++;
+				} else if (isDigit(c)) {
+					int column = pos + 1;
+					int value = 0;
+					while (pos < end && isDigit(line[pos])) {
+						if (value <= dimension)
+							value = value * 10 + (line[pos] - '0');
+						pos++;
+					}
+					if (value > dimension)
+						throw new FormatException("line " + lineNumber + ", column " + column + ": value " + new String(line, column - 1, pos - column + 1, StandardCharsets.US_ASCII) + " is larger than " + dimension);
+					values[count++] = value;
+				} else {
+					throw new FormatException("line " + lineNumber + ", column " + (pos + 1) + ": unexpected character '" + (char) (c & 0xff) + "'");
+				}
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * This method tells whether the content of the line is meant as a puzzle
+	 * in the one line format: it has no spaces, its length is within an eighth
+	 * of the size of a puzzle (16, 81, 256, ...) and at least half of it are
+	 * characters of the format. A line like "puzzling.stackexchange.com" is
+	 * not, a puzzle with a character too many or too few is.
+	 *
+	 * @param start, first byte of the content of the line
+	 * @param end, end of the content of the line
+	 * @return boolean
+	 */
+	private boolean isPuzzleLine(int start, int end) {
+		int length = end - start;
+		int size = nearestSize(length);
+		if (size < 16 || Math.abs(length - size) * 8 > size)
+			return false;
+		int numValues = 0;
+		for (int pos = start; pos < end; pos++) {
+			if (isSpace(line[pos]))
+				return false;
+			if (charToValue((char) (line[pos] & 0xff), 61) >= 0)
+				numValues++;
+		}
+		return numValues * 2 >= length;
+	}
+
+	/**
+	 * This method returns the size of the puzzle (16, 81, 256, ..., 2401) whose
+	 * number of values is nearest to 'length'.
+	 *
+	 * @return int
+	 */
+	private static int nearestSize(int length) {
+		int boxSize = (int) Math.max(1, Math.min(7, Math.round(Math.sqrt(Math.sqrt(length)))));
+		return boxSize * boxSize * boxSize * boxSize;
+	}
+
+	/**
+	 * This method converts the content of the line to the values of a puzzle
+	 * in the one line format.
+	 *
+	 * @param start, first byte of the content of the line
+	 * @param end, end of the content of the line
+	 * @return int, number of values
+	 * @throws IOException, if the line has the wrong length or a character
+	 * which is not a value of the puzzle
+	 */
+	private int readPuzzleLine(int start, int end) throws IOException {
+		int size = end - start;
+		if (size != SIZES[Math.min(size, SIZES.length - 1)]) {
+			int expected = nearestSize(size);
+			throw new FormatException("line " + lineNumber + ", column " + (start + Math.min(size, expected) + 1) + ": puzzle of " + size + " characters, " + expected + " expected");
+		}
+		int dimension = (int) Math.round(Math.sqrt(size));
+		if (values.length < size)
+			values = new int[size];
+		for (int i = 0; i < size; i++) {
+			byte c = line[start + i];
+			int value = dimension > 35 ? charToValue((char) (c & 0xff), dimension) : VALUES[c & 0xff];
+			if (value < 0)
+				throw new FormatException("line " + lineNumber + ", column " + (start + i + 1) + ": unexpected character '" + (char) (c & 0xff) + "'");
+			if (value > dimension)
+				throw new FormatException("line " + lineNumber + ", column " + (start + i + 1) + ": value '" + (char) (c & 0xff) + "' is larger than " + dimension);
+			values[i] = value;
+		}
+		return size;
+	}
+
+	/**
+	 * This method returns the values of a puzzle in the one line format, e.g.
+	 * one line of a request to SolveServer, or null if the text is not a
+	 * puzzle. Spaces around the puzzle and a '#' comment after it are ignored.
+	 *
+	 * @param text, one line
+	 * @return int[]
+	 */
+	static int[] parseLine(String text) {
+		int end = text.indexOf('#');
+		String content = (end < 0 ? text : text.substring(0, end)).trim();
+		int size = content.length();
+		if (size < 16 || size >= SIZES.length || SIZES[size] != size)
+			return null;
+		int dimension = (int) Math.round(Math.sqrt(size));
+		int[] cells = new int[size];
+		for (int i = 0; i < size; i++) {
+			int value = charToValue(content.charAt(i), dimension);
+			if (value < 0 || value > dimension)
+				return null;
+			cells[i] = value;
+		}
+		return cells;
+	}
+
+	/**
+	 * This method returns the value of one character in the one line format, or
+	 * -1 if the character can't be part of a puzzle.
+	 *
+	 * @param c, character
+	 * @param dimension, number of rows and columns of the puzzle
+	 * @return int
+	 */
+	static int charToValue(char c, int dimension) {
+		if (c == '.' || c == '0')
+			return 0;
+		if (c >= '1' && c <= '9')
+			return c - '0';
+		if (c >= 'A' && c <= 'Z')
+			return c - 'A' + 10;
+		if (c >= 'a' && c <= 'z')
+			return dimension > 35 ? c - 'a' + 36 : c - 'a' + 10;
+		return -1;
+	}
+
+	/**
+	 * This method returns the character used for a value in the one line format.
+	 *
+	 * @param value, 0 for unknown
+	 * @return char
+	 */
+	static char valueToChar(int value) {
+		if (value == 0)
+			return '.';
+		if (value <= 9)
+			return (char) ('0' + value);
+		if (value <= 35)
+			return (char) ('A' + value - 10);
+		return (char) ('a' + value - 36);
+	}
+
+	/**
+	 * This method returns a puzzle or solution in the one line format.
+	 *
+	 * @param cells, values row by row, 0 for unknown values
+	 * @return String
+	 */
+	static String toLine(int[] cells) {
+		char[] line = new char[cells.length];
+		for (int i = 0; i < cells.length; i++)
+			line[i] = valueToChar(cells[i]);
+		return new String(line);
+	}
+
+	private static boolean isDigit(byte b) {
+		return b >= '0' && b <= '9';
+	}
+
+	private static boolean isSpace(byte b) {
+		return b == ' ' || b == '\t' || b == '\r';
+	}
+
+	/**
+	 * This method closes the underlying file or stream.
+	 *
+	 * @throws IOException
+	 */
+	public void close() throws IOException {
+		channel.close();
+	}
+}
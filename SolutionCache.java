@@ -0,0 +1,160 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * This class remembers the solutions of recently solved puzzles by their
+ * canonical form (see CanonicalForm), so a puzzle which was seen before,
+ * even with its values relabeled, transposed or its bands, stacks, rows or
+ * columns swapped, is answered without solving it again. The solution of the
+ * canonical form is mapped back to the puzzle.
+ *
+ * The cache holds at most 'capacity' solutions; when it is full, the one used
+ * least recently is dropped. It keeps counters of hits, misses, evictions and
+ * the time spent on canonical forms. All methods may be called from several
+ * threads.
+ *
+ * @author devankarsann
+ */
+
+public class SolutionCache {
+
+	// returned by get for a puzzle without a solution
+	static final int[] NO_SOLUTION = new int[0];
+
+	private final int capacity;
+	private final LinkedHashMap<String, int[]> solutions;
+	private long hits;
+	private long misses;
+	private long evictions;
+	private long canonicalNanos;
+
+	/**
+	 * This is the constructor method for a SolutionCache object.
+	 *
+	 * @param capacity, largest number of solutions kept
+	 */
+	public SolutionCache(int capacity) {
+		if (capacity < 1)
+			throw new IllegalArgumentException("the capacity of a SolutionCache must be at least 1, not " + capacity);
+		this.capacity = capacity;
+		// access order, so the eldest entry is the one used least recently
+		solutions = new LinkedHashMap<String, int[]>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			protected boolean removeEldestEntry(Map.Entry<String, int[]> eldest) {
+				if (size() <= SolutionCache.this.capacity)
+					return false;
+				evictions++;
+				return true;
+			}
+		};
+	}
+
+	/**
+	 * This method returns the canonical form of a puzzle and counts the time
+	 * it took.
+	 *
+	 * @param puzzle, values row by row, 0 for unknown values
+	 * @param dimension, number of rows and columns
+	 * @return CanonicalForm
+	 */
+	public CanonicalForm canonicalize(int[] puzzle, int dimension) {
+		long start = System.nanoTime();
+		CanonicalForm form = CanonicalForm.of(puzzle, dimension);
+		long nanos = System.nanoTime() - start;
+		synchronized (this) {
+			canonicalNanos += nanos;
+		}
+		return form;
+	}
+
+	/**
+	 * This method looks up the solution of a puzzle by its canonical form and
+	 * maps it back to the puzzle.
+	 *
+	 * @param form, canonical form of the puzzle
+	 * @return int[], the solution, NO_SOLUTION if the puzzle is known to have
+	 * none, or null if it isn't cached
+	 */
+	public int[] get(CanonicalForm form) {
+		int[] solution;
+		synchronized (this) {
+			solution = solutions.get(form.key);
+			if (solution == null)
+				misses++;
+			else
+				hits++;
+		}
+		return solution == null || solution == NO_SOLUTION ? solution : form.toOriginal(solution);
+	}
+
+	/**
+	 * This method stores the solution of a puzzle under its canonical form.
+	 *
+	 * @param form, canonical form of the puzzle
+	 * @param solution, of the puzzle, null if it has none
+	 */
+	public void put(CanonicalForm form, int[] solution) {
+		int[] canonical = solution == null ? NO_SOLUTION : form.toCanonical(solution);
+		synchronized (this) {
+			solutions.put(form.key, canonical);
+		}
+	}
+
+	/**
+	 * This method returns the number of lookups which found a solution.
+	 *
+	 * @return long
+	 */
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	/**
+	 * This method returns the number of lookups which found nothing.
+	 *
+	 * @return long
+	 */
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	/**
+	 * This method returns the number of solutions dropped because the cache was full.
+	 *
+	 * @return long
+	 */
+	public synchronized long getEvictions() {
+		return evictions;
+	}
+
+	/**
+	 * This method returns the share of lookups which found a solution, 0 to 1.
+	 *
+	 * @return double
+	 */
+	public synchronized double getHitRate() {
+		return hits + misses == 0 ? 0 : (double) hits / (hits + misses);
+	}
+
+	/**
+	 * This method returns the total time spent on canonical forms in nanoseconds.
+	 *
+	 * @return long
+	 */
+	public synchronized long getCanonicalNanos() {
+		return canonicalNanos;
+	}
+
+	/**
+	 * This method returns the counters as one line for the console.
+	 *
+	 * @return String
+	 */
+	public synchronized String summary() {
+		long lookups = hits + misses;
+		return String.format(" solution cache: %d hits, %d misses (%.1f%% hit rate), %d of %d kept, %d evicted, canonical form %.1f us per puzzle",
+				hits, misses, 100 * getHitRate(), solutions.size(), capacity, evictions,
+				lookups == 0 ? 0 : canonicalNanos / 1e3 / lookups);
+	}
+}
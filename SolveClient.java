@@ -0,0 +1,191 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This is the load generator of the solve server (see SolveServer). Each of
+ * its connections sends requests of a few puzzles, waits for all answers and
+ * measures the time from sending a request to its last answer. The puzzles
+ * are taken from a file in turn. When every request is done, the throughput,
+ * the latency percentiles and the number of wrong answers are printed.
+ *
+ * Without "--port" the client starts a SolveServer in the same JVM on a free
+ * port, so the whole round trip can be tried with one command.
+ *
+ * $ java SolveClient --connections 16 --batch 8 --requests 2000 puzzles.txt
+ *
+ * @author devankarsann
+ */
+
+public class SolveClient {
+
+	/**
+	 * This is the main method of the load generator.
+	 *
+	 * @param args, puzzle file, optionally "--port p" of a running server,
+	 * "--connections n" (8), "--batch n" puzzles per request (1), "--requests n"
+	 * per connection (1000), and "--workers n" and "--cache n" of the server
+	 * started without "--port"; with any other option or a missing value the
+	 * usage is printed
+	 * @throws IOException
+	 * @throws InterruptedException
+	 */
+	public static void main(String[] args) throws IOException, InterruptedException {
+		String fileName = null;
+		int port = -1;
+		int numConnections = 8;
+		int batchSize = 1;
+		int numRequests = 1000;
+		int numWorkers = Runtime.getRuntime().availableProcessors();
+		String unknown = null;
+		SolveOptions options = new SolveOptions();
+		for (int i = 0; i < args.length; i++) {
+			if (args[i].equals("--port") && i + 1 < args.length)
+				port = Integer.parseInt(args[++i]);
+			else if (args[i].equals("--connections") && i + 1 < args.length)
+				numConnections = Integer.parseInt(args[++i]);
+			else if (args[i].equals("--batch") && i + 1 < args.length)
+				batchSize = Integer.parseInt(args[++i]);
+			else if (args[i].equals("--requests") && i + 1 < args.length)
+				numRequests = Integer.parseInt(args[++i]);
+			else if (args[i].equals("--workers") && i + 1 < args.length)
+				numWorkers = Integer.parseInt(args[++i]);
+			else if (args[i].equals("--cache") && i + 1 < args.length)
+				options.cache = new SolutionCache(Integer.parseInt(args[++i]));
+			else if (args[i].startsWith("--") || fileName != null)
+				unknown = args[i];
+			else
+				fileName = args[i];
+		}
+		if (unknown != null)
+			System.out.println("unknown argument: " + unknown);
+		if (fileName == null || unknown != null) {
+			System.out.println("usage: java SolveClient <puzzle file> [--port p] [--connections n] [--batch n] [--requests n] [--workers n] [--cache n]");
+			return;
+		}
+
+		final List<int[]> puzzles = new ArrayList<int[]>();
+		PuzzleReader reader = new PuzzleReader(fileName);
+		int[] cells;
+		while ((cells = reader.next()) != null)
+			puzzles.add(cells);
+		reader.close();
+		if (puzzles.isEmpty())
+			throw new IOException("no puzzle found in " + fileName);
+
+		SolveServer server = null;
+		if (port < 0) {
+			server = new SolveServer(0, numWorkers, "techniques", options);
+			final SolveServer running = server;
+			Thread accepting = new Thread(running::run, "accept");
+			accepting.setDaemon(true);
+			accepting.start();
+			port = server.getPort();
+			System.out.println(" started a server on port " + port + " with " + numWorkers + " solver threads");
+		}
+
+		final int serverPort = port;
+		final int batch = batchSize;
+		final int requests = numRequests;
+		final long[][] latencies = new long[numConnections][];
+		final AtomicInteger numWrong = new AtomicInteger();
+		final AtomicInteger numFailed = new AtomicInteger();
+		Thread[] threads = new Thread[numConnections];
+		long start = System.nanoTime();
+		for (int c = 0; c < numConnections; c++) {
+			final int connection = c;
+			threads[c] = new Thread(() -> {
+				try {
+					latencies[connection] = runConnection(serverPort, puzzles, connection, batch, requests, numWrong);
+				} catch (IOException e) {
+					numFailed.incrementAndGet();
+					latencies[connection] = new long[0];
+				}
+			});
+			threads[c].start();
+		}
+		for (Thread thread : threads)
+			thread.join();
+		long elapsed = System.nanoTime() - start;
+		if (server != null)
+			server.close();
+
+		int total = 0;
+		for (long[] times : latencies)
+			total += times.length;
+		long[] all = new long[total];
+		int pos = 0;
+		for (long[] times : latencies) {
+			System.arraycopy(times, 0, all, pos, times.length);
+			pos += times.length;
+		}
+		Arrays.sort(all);
+		double seconds = elapsed / 1e9;
+		System.out.println("\n connections: " + numConnections + ", puzzles per request: " + batch + (numFailed.get() > 0 ? ", failed connections: " + numFailed.get() : ""));
+		System.out.printf(" requests: %d, %.1f requests/s, %.1f puzzles/s%n", total, total / seconds, total * batch / seconds);
+		if (total > 0) {
+			System.out.printf(" latency p50: %.3f ms, p90: %.3f ms, p99: %.3f ms, max: %.3f ms%n",
+					BatchSolver.percentile(all, 50) / 1e6, BatchSolver.percentile(all, 90) / 1e6,
+					BatchSolver.percentile(all, 99) / 1e6, all[all.length - 1] / 1e6);
+		}
+		System.out.println(" wrong answers: " + numWrong.get());
+		if (server != null && options.cache != null)
+			System.out.println(options.cache.summary());
+	}
+
+	/**
+	 * This method sends the requests of one connection and checks the answers.
+	 *
+	 * @param port, of the server
+	 * @param puzzles, taken in turn, each connection starting at another one
+	 * @param connection, number of the connection
+	 * @param batch, puzzles per request
+	 * @param requests, number of requests
+	 * @param numWrong, counts the answers which are not a solution of their puzzle
+	 * @return long[], latency of each request in nanoseconds
+	 * @throws IOException
+	 */
+	static long[] runConnection(int port, List<int[]> puzzles, int connection, int batch, int requests, AtomicInteger numWrong) throws IOException {
+		long[] latencies = new long[requests];
+		int next = connection * batch % puzzles.size();
+		int[][] sent = new int[batch][];
+		try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+			socket.setTcpNoDelay(true);
+			BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+			Writer out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII));
+			for (int r = 0; r < requests; r++) {
+				long start = System.nanoTime();
+				for (int p = 0; p < batch; p++) {
+					sent[p] = puzzles.get(next);
+					next = (next + 1) % puzzles.size();
+					out.write(PuzzleReader.toLine(sent[p]));
+					out.write('\n');
+				}
+				out.flush();
+				for (int p = 0; p < batch; p++) {
+					String answer = in.readLine();
+					if (answer == null)
+						throw new IOException("the server closed the connection");
+					if (answer.equals("no solution"))
+						continue;
+					int dimension = (int) Math.round(Math.sqrt(sent[p].length));
+					int[] solution = PuzzleReader.parseLine(answer);
+					if (SudokuEngine.isSolutionOf(sent[p], solution, dimension) == false)
+						numWrong.incrementAndGet();
+				}
+				latencies[r] = System.nanoTime() - start;
+			}
+		}
+		return latencies;
+	}
+}
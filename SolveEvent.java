@@ -0,0 +1,107 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * This is the Java Flight Recorder event of one solve of a SudokuSolver. It
+ * carries the counters of SolveStats, so a recording shows which puzzles were
+ * expensive and why (guesses, backtracks, time per phase) without any
+ * solution steps being written. The event costs next to nothing while no
+ * recording is running.
+ *
+ * $ java -XX:StartFlightRecording=filename=solve.jfr BatchSolver puzzles.txt out.txt
+ * $ jfr print --events sudoku.Solve solve.jfr
+ *
+ * @author devankarsann
+ */
+
+@Name("sudoku.Solve")
+@Label("Sudoku Solve")
+@Category("Sudoku")
+@Description("One puzzle solved by SudokuSolver")
+class SolveEvent extends Event {
+
+	@Label("Dimension")
+	int dimension;
+
+	@Label("Givens")
+	int givens;
+
+	@Label("Solved")
+	boolean solved;
+
+	@Label("Naked Singles")
+	long nakedSingles;
+
+	@Label("Hidden Singles")
+	long hiddenSingles;
+
+	@Label("Strategy Eliminations")
+	long strategyEliminations;
+
+	@Label("Guesses")
+	long guesses;
+
+	@Label("Backtracks")
+	long backtracks;
+
+	@Label("Max Depth")
+	int maxDepth;
+
+	@Label("Peak Trail Size")
+	int peakTrailSize;
+
+	@Label("Nogoods Learned")
+	long nogoodsLearned;
+
+	@Label("Nogood Prunes")
+	long nogoodPrunes;
+
+	@Label("Levels Skipped")
+	@Description("Guess levels skipped by backjumping")
+	long levelsSkipped;
+
+	@Label("Propagation Time")
+	@Timespan(Timespan.NANOSECONDS)
+	long propagateNanos;
+
+	@Label("Strategy Time")
+	@Timespan(Timespan.NANOSECONDS)
+	long strategyNanos;
+
+	@Label("Guess Time")
+	@Timespan(Timespan.NANOSECONDS)
+	long guessNanos;
+
+	@Label("Backtrack Time")
+	@Timespan(Timespan.NANOSECONDS)
+	long backtrackNanos;
+
+	/**
+	 * This method copies the counters of a finished solve into the event.
+	 *
+	 * @param stats, counters of the solve
+	 */
+	void set(SolveStats stats) {
+		dimension = stats.dimension;
+		givens = stats.numGivens;
+		solved = stats.solved;
+		nakedSingles = stats.nakedSingles;
+		hiddenSingles = stats.hiddenSingles;
+		strategyEliminations = stats.strategyEliminations;
+		guesses = stats.guesses;
+		backtracks = stats.backtracks;
+		maxDepth = stats.maxDepth;
+		peakTrailSize = stats.peakTrailSize;
+		nogoodsLearned = stats.nogoodsLearned;
+		nogoodPrunes = stats.nogoodPrunes;
+		levelsSkipped = stats.levelsSkipped;
+		propagateNanos = stats.propagateNanos;
+		strategyNanos = stats.strategyNanos;
+		guessNanos = stats.guessNanos;
+		backtrackNanos = stats.backtrackNanos;
+	}
+}
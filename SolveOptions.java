@@ -0,0 +1,73 @@
+/**
+ * This class holds the settings with which BatchSolver and SolveServer
+ * solve puzzles: the elimination strategies, branching rules and nogood
+ * limit of the techniques engine, the solution counting limit, the solution
+ * cache and whether the counters of every puzzle are printed. Every driver
+ * fills in its own SolveOptions from its command-line flags and passes it
+ * along, so two servers, or a server and a batch, in one JVM don't share
+ * their settings.
+ *
+ * A SolveOptions object also keeps the engines of each thread which solves
+ * with it, set up with these settings, so the engines are reused from puzzle
+ * to puzzle. The settings must not change once puzzles are solved with it.
+ *
+ * @author devankarsann
+ */
+
+public class SolveOptions {
+
+	// elimination strategies of the techniques engine, see EliminationStrategy
+	String strategies = "none";
+	// branching rules of the techniques engine, see SudokuSolver.setBranching
+	String cellRule = "last-fewest";
+	String valueRule = "lowest";
+	// true to print the counters of every puzzle solved by the techniques engine
+	boolean statsJson = false;
+	// number of solutions after which counting stops, 0 to solve the puzzles instead
+	int countLimit = 0;
+	// solutions of recent puzzles by canonical form, or null
+	SolutionCache cache = null;
+	// number of nogoods each techniques engine keeps, 0 to learn none
+	int nogoodLimit = 0;
+
+	// each thread keeps reusing its own engines
+	private final ThreadLocal<SudokuEngine[]> engines = new ThreadLocal<SudokuEngine[]>();
+
+	/**
+	 * This method checks the strategies and branching rules, so a wrong name
+	 * is reported before any puzzle is read.
+	 *
+	 * @throws IllegalArgumentException, for an unknown strategy or rule
+	 */
+	void check() {
+		EliminationStrategy.createAll(strategies);
+		new SudokuSolver().setBranching(cellRule, valueRule);
+	}
+
+	/**
+	 * This method returns the calling thread's engine with the given name.
+	 *
+	 * @param name, "techniques", "dlx", "bitsliced" or "vector"
+	 * @return SudokuEngine
+	 */
+	SudokuEngine engineForCurrentThread(String name) {
+		SudokuEngine[] threadEngines = engines.get();
+		if (threadEngines == null) {
+			threadEngines = new SudokuEngine[4];
+			engines.set(threadEngines);
+		}
+		int index = name.equals("dlx") ? 1 : name.equals("bitsliced") ? 2 : name.equals("vector") ? 3 : 0;
+		if (threadEngines[index] == null && index == 2) {
+			// stalled puzzles go to this thread's techniques engine, with its strategies and branching rules
+			threadEngines[index] = new BitSlicedSolver(engineForCurrentThread("techniques"));
+		} else if (threadEngines[index] == null) {
+			threadEngines[index] = SudokuEngine.create(name);
+			if (threadEngines[index] instanceof SudokuSolver) {
+				((SudokuSolver) threadEngines[index]).setStrategies(EliminationStrategy.createAll(strategies));
+				((SudokuSolver) threadEngines[index]).setBranching(cellRule, valueRule);
+				((SudokuSolver) threadEngines[index]).setNogoodLimit(nogoodLimit);
+			}
+		}
+		return threadEngines[index];
+	}
+}
@@ -0,0 +1,338 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This is the solve server of my Sudoku solving program. It keeps one JVM
+ * running and solves puzzles sent over a TCP connection on the local
+ * machine, so other programs don't pay for a JVM start and a solutionSteps
+ * file per puzzle.
+ *
+ * protocol: every line a client sends is one puzzle in the one line format of
+ * PuzzleReader, and the server answers every line with one line, in the same
+ * order: the solution in the same format, "no solution", or "error: ..." if
+ * the line is not a puzzle. Empty lines and lines starting with '#' get no
+ * answer. A request may hold any number of puzzles, the answers are streamed
+ * back as soon as the puzzles before them are solved.
+ *
+ * Each connection is handled on a virtual thread when the JVM has them (Java
+ * 21 and later), otherwise on a platform thread. The puzzles of all
+ * connections go into one bounded queue, and a fixed pool of solver threads
+ * takes them out in batches, so many small requests share the solvers
+ * without a thread per puzzle, and a full queue makes the connections wait.
+ *
+ * The server only listens on the loopback address.
+ *
+ * $ java SolveServer --port 7878 --workers 4
+ * $ java SolveClient --port 7878 --connections 16 --batch 8 puzzles.txt
+ *
+ * @author devankarsann
+ */
+
+public class SolveServer implements Closeable {
+
+	static final int DEFAULT_PORT = 7878;
+	// number of puzzles a solver thread takes out of the queue at once, one
+	// group of lanes of the bitsliced engine
+	static final int BATCH_SIZE = BitSlicedSolver.LANES;
+	// number of puzzles which may wait for a solver thread
+	static final int QUEUE_SIZE = 4096;
+	// marks the end of the answers of a connection
+	private static final CompletableFuture<String> END = new CompletableFuture<String>();
+
+	/**
+	 * This class is one puzzle waiting for a solver thread.
+	 */
+	static class Job {
+		int[] cells;
+		CompletableFuture<String> answer = new CompletableFuture<String>();
+	}
+
+	private ServerSocket serverSocket;
+	private BlockingQueue<Job> queue = new ArrayBlockingQueue<Job>(QUEUE_SIZE);
+	private Thread[] workers;
+	private ExecutorService connections;
+	// accepted connections which are still open, closed along with the server
+	private Set<Socket> openSockets = ConcurrentHashMap.newKeySet();
+	private boolean virtualThreads;
+	private String engine;
+	private SolveOptions options;
+	private AtomicLong numSolved = new AtomicLong();
+
+	/**
+	 * This is the constructor method for a SolveServer object. The server
+	 * listens right away, and its solver threads are started.
+	 *
+	 * @param port, TCP port on the loopback address, 0 for any free port
+	 * @param numWorkers, number of solver threads
+	 * @param engine, name of the engine, see BatchSolver
+	 * @param options, strategies, branching rules, counting, cache and
+	 * nogoods of the engines, see BatchSolver
+	 * @throws IOException
+	 */
+	public SolveServer(int port, int numWorkers, String engine, SolveOptions options) throws IOException {
+		SudokuEngine.create(engine);
+		options.check();
+		this.engine = engine;
+		this.options = options;
+		serverSocket = new ServerSocket(port, 128, InetAddress.getLoopbackAddress());
+		connections = connectionExecutor();
+		workers = new Thread[numWorkers];
+		for (int w = 0; w < numWorkers; w++) {
+			workers[w] = new Thread(this::solveJobs, "solver-" + w);
+			workers[w].setDaemon(true);
+			workers[w].start();
+		}
+	}
+
+	/**
+	 * This is the main method of the solve server. It runs until the process
+	 * is stopped.
+	 *
+	 * @param args, optionally "--port p" (7878), "--workers n" (all
+	 * processors), and "--engine", "--strategies", "--branching",
+	 * "--value-order", "--count", "--cache n" and "--nogoods n" as for BatchSolver;
+	 * with any other argument or a missing value the usage is printed
+	 * @throws IOException
+	 */
+	public static void main(String[] args) throws IOException {
+		int port = DEFAULT_PORT;
+		int numWorkers = Runtime.getRuntime().availableProcessors();
+		String engine = "techniques";
+		String unknown = null;
+		SolveOptions options = new SolveOptions();
+		for (int i = 0; i < args.length; i++) {
+			if (args[i].equals("--port") && i + 1 < args.length)
+				port = Integer.parseInt(args[++i]);
+			else if (args[i].equals("--workers") && i + 1 < args.length)
+				numWorkers = Integer.parseInt(args[++i]);
+			else if (args[i].equals("--engine") && i + 1 < args.length)
+				engine = args[++i];
+			else if (args[i].equals("--strategies") && i + 1 < args.length)
+				options.strategies = args[++i];
+			else if (args[i].equals("--branching") && i + 1 < args.length)
+				options.cellRule = args[++i];
+			else if (args[i].equals("--value-order") && i + 1 < args.length)
+				options.valueRule = args[++i];
+			else if (args[i].equals("--count"))
+				options.countLimit = Math.max(options.countLimit, 2);
+			else if (args[i].equals("--cache") && i + 1 < args.length)
+				options.cache = new SolutionCache(Integer.parseInt(args[++i]));
+			else if (args[i].equals("--nogoods") && i + 1 < args.length)
+				options.nogoodLimit = Integer.parseInt(args[++i]);
+			else
+				unknown = args[i];
+		}
+		if (unknown != null) {
+			System.out.println("unknown argument: " + unknown);
+			System.out.println("usage: java SolveServer [--port p] [--workers n] [--engine techniques|dlx|bitsliced|vector] [--strategies all|none|names] [--branching rule] [--value-order rule] [--count] [--cache n] [--nogoods n]");
+			return;
+		}
+
+		SolveServer server = new SolveServer(port, numWorkers, engine, options);
+		System.out.println(" listening on " + server.serverSocket.getLocalSocketAddress() + ", " + numWorkers
+				+ " solver threads, connections on " + (server.virtualThreads ? "virtual" : "platform") + " threads");
+		server.run();
+	}
+
+	/**
+	 * This method returns the local port the server listens on.
+	 *
+	 * @return int
+	 */
+	public int getPort() {
+		return serverSocket.getLocalPort();
+	}
+
+	/**
+	 * This method returns the number of puzzles solved so far.
+	 *
+	 * @return long
+	 */
+	public long getNumSolved() {
+		return numSolved.get();
+	}
+
+	/**
+	 * This method accepts connections until the server is closed.
+	 */
+	public void run() {
+		while (serverSocket.isClosed() == false) {
+			try {
+				final Socket socket = serverSocket.accept();
+				openSockets.add(socket);
+				// a connection accepted while the server closes is closed right away
+				if (serverSocket.isClosed())
+					socket.close();
+				else
+					connections.execute(() -> serve(socket));
+			} catch (IOException | RejectedExecutionException e) {
+				// the server socket was closed
+			}
+		}
+	}
+
+	/**
+	 * This method stops accepting connections, closes the open ones and stops
+	 * the solver threads. Closing a connection wakes its thread up from a
+	 * blocking read, which an interrupt doesn't do.
+	 *
+	 * @throws IOException
+	 */
+	public void close() throws IOException {
+		serverSocket.close();
+		for (Socket socket : openSockets) {
+			try {
+				socket.close();
+			} catch (IOException e) {
+				// the connection is closed anyway
+			}
+		}
+		for (Thread worker : workers)
+			worker.interrupt();
+		connections.shutdownNow();
+	}
+
+	/**
+	 * This method reads the puzzles of one connection and hands them to the
+	 * solver threads. The answers are written by a second thread, so a client
+	 * which waits for an answer before sending more gets it right away.
+	 *
+	 * @param socket, the connection
+	 */
+	private void serve(Socket socket) {
+		BlockingQueue<CompletableFuture<String>> pending = new LinkedBlockingQueue<CompletableFuture<String>>();
+		try (Socket connection = socket) {
+			BufferedReader in = new BufferedReader(new InputStreamReader(connection.getInputStream(), StandardCharsets.US_ASCII), 1 << 16);
+			Writer out = new BufferedWriter(new OutputStreamWriter(connection.getOutputStream(), StandardCharsets.US_ASCII), 1 << 16);
+			CompletableFuture<Void> written = CompletableFuture.runAsync(() -> writeAnswers(pending, out), connections);
+			try {
+				String line;
+				while ((line = in.readLine()) != null) {
+					if (line.trim().isEmpty() || line.trim().startsWith("#"))
+						continue;
+					int[] cells = PuzzleReader.parseLine(line);
+					if (cells == null) {
+						pending.put(CompletableFuture.completedFuture("error: not a puzzle"));
+						continue;
+					}
+					Job job = new Job();
+					job.cells = cells;
+					pending.put(job.answer);
+					queue.put(job);
+				}
+			} finally {
+				pending.put(END);
+			}
+			written.join();
+		} catch (IOException | InterruptedException | RuntimeException e) {
+			// the client went away, its answers are dropped
+		} finally {
+			openSockets.remove(socket);
+		}
+	}
+
+	/**
+	 * This method writes the answers of one connection in the order of its
+	 * puzzles. The output is only flushed when the next answer isn't ready
+	 * yet, so answers which are done together are sent together.
+	 *
+	 * @param pending, answers in the order of the puzzles, then END
+	 * @param out, the connection
+	 */
+	private static void writeAnswers(BlockingQueue<CompletableFuture<String>> pending, Writer out) {
+		try {
+			CompletableFuture<String> answer;
+			while ((answer = pending.take()) != END) {
+				out.write(answer.join());
+				out.write('\n');
+				CompletableFuture<String> next = pending.peek();
+				if (next == null || next.isDone() == false)
+					out.flush();
+			}
+			out.flush();
+		} catch (IOException | InterruptedException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * This method is run by each solver thread: it takes the waiting puzzles
+	 * in batches and solves them with the thread's own engine, the bitsliced
+	 * engine a whole batch at once.
+	 */
+	private void solveJobs() {
+		List<Job> batch = new ArrayList<Job>(BATCH_SIZE);
+		try {
+			while (true) {
+				batch.add(queue.take());
+				queue.drainTo(batch, BATCH_SIZE - 1);
+				int[][] puzzles = new int[batch.size()][];
+				for (int p = 0; p < puzzles.length; p++)
+					puzzles[p] = batch.get(p).cells;
+				try {
+					BatchSolver.Result[] results = BatchSolver.solveGroup(puzzles, engine, false, options);
+					for (int p = 0; p < puzzles.length; p++)
+						batch.get(p).answer.complete(results[p].line);
+					numSolved.addAndGet(puzzles.length);
+				} catch (IOException | RuntimeException e) {
+					// solved one by one again, so only the puzzle which failed gets the error
+					for (Job job : batch) {
+						try {
+							job.answer.complete(BatchSolver.solvePuzzle(job.cells, engine, false, options).line);
+							numSolved.incrementAndGet();
+						} catch (IOException | RuntimeException failure) {
+							job.answer.complete("error: " + failure.getMessage());
+						}
+					}
+				}
+				batch.clear();
+			}
+		} catch (InterruptedException e) {
+			// the server was closed
+		}
+	}
+
+	/**
+	 * This method returns an executor which starts a virtual thread per task
+	 * if the JVM has virtual threads (Java 21 and later), found by reflection
+	 * so the program still compiles and runs on older versions, and a cached
+	 * pool of platform threads otherwise.
+	 *
+	 * @return ExecutorService
+	 */
+	private ExecutorService connectionExecutor() {
+		try {
+			ExecutorService executor = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+			virtualThreads = true;
+			return executor;
+		} catch (ReflectiveOperationException e) {
+			virtualThreads = false;
+			return Executors.newCachedThreadPool(runnable -> {
+				Thread thread = new Thread(runnable);
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+	}
+}
@@ -0,0 +1,182 @@
+/**
+ * This class holds the counters of one solve of a SudokuSolver: how many
+ * values each solution technique set, how the search went and how much time
+ * each phase of the solving loop took. A SudokuSolver keeps one SolveStats
+ * object and clears it for every puzzle, see SudokuSolver.getStats().
+ *
+ * definition of 'phase': propagation (parts 2 and 3, the worklists), the
+ * elimination strategies (part 5), guessing (part 6) and backtracking (part 1)
+ *
+ * @author devankarsann
+ */
+
+public class SolveStats {
+
+	int dimension;
+	int numGivens;
+	boolean solved;
+	int numLooped;
+	// values set by part 2 (one possible value) and part 3 (one possible Cell)
+	long nakedSingles;
+	long hiddenSingles;
+	// possible values removed by the elimination strategies of part 5
+	long strategyEliminations;
+	long guesses;
+	long backtracks;
+	// nogood learning: nogoods stored, possible values they removed and
+	// guess levels taken back by backjumping without trying their other values
+	long nogoodsLearned;
+	long nogoodPrunes;
+	long levelsSkipped;
+	int maxDepth;
+	int peakTrailSize;
+	long totalNanos;
+	long propagateNanos;
+	long strategyNanos;
+	long guessNanos;
+	long backtrackNanos;
+
+	/**
+	 * This method clears every counter.
+	 */
+	void clear() {
+		dimension = 0;
+		numGivens = 0;
+		solved = false;
+		numLooped = 0;
+		nakedSingles = 0;
+		hiddenSingles = 0;
+		strategyEliminations = 0;
+		guesses = 0;
+		backtracks = 0;
+		nogoodsLearned = 0;
+		nogoodPrunes = 0;
+		levelsSkipped = 0;
+		maxDepth = 0;
+		peakTrailSize = 0;
+		totalNanos = 0;
+		propagateNanos = 0;
+		strategyNanos = 0;
+		guessNanos = 0;
+		backtrackNanos = 0;
+	}
+
+	/**
+	 * This method adds the counters of a subtree of the parallel search. Its
+	 * guesses started below 'levelsAbove' guess levels of this solve.
+	 *
+	 * @param other, SolveStats of a ParallelSearch task
+	 * @param levelsAbove, number of guess levels above the task
+	 */
+	void add(SolveStats other, int levelsAbove) {
+		numLooped += other.numLooped;
+		nakedSingles += other.nakedSingles;
+		hiddenSingles += other.hiddenSingles;
+		strategyEliminations += other.strategyEliminations;
+		guesses += other.guesses;
+		backtracks += other.backtracks;
+		nogoodsLearned += other.nogoodsLearned;
+		nogoodPrunes += other.nogoodPrunes;
+		levelsSkipped += other.levelsSkipped;
+		maxDepth = Math.max(maxDepth, other.maxDepth + levelsAbove);
+		peakTrailSize = Math.max(peakTrailSize, other.peakTrailSize);
+		propagateNanos += other.propagateNanos;
+		strategyNanos += other.strategyNanos;
+		guessNanos += other.guessNanos;
+		backtrackNanos += other.backtrackNanos;
+	}
+
+	public int getDimension() {
+		return dimension;
+	}
+
+	public int getNumGivens() {
+		return numGivens;
+	}
+
+	public boolean isSolved() {
+		return solved;
+	}
+
+	public int getNumLooped() {
+		return numLooped;
+	}
+
+	public long getNakedSingles() {
+		return nakedSingles;
+	}
+
+	public long getHiddenSingles() {
+		return hiddenSingles;
+	}
+
+	public long getStrategyEliminations() {
+		return strategyEliminations;
+	}
+
+	public long getGuesses() {
+		return guesses;
+	}
+
+	public long getBacktracks() {
+		return backtracks;
+	}
+
+	public long getNogoodsLearned() {
+		return nogoodsLearned;
+	}
+
+	public long getNogoodPrunes() {
+		return nogoodPrunes;
+	}
+
+	public long getLevelsSkipped() {
+		return levelsSkipped;
+	}
+
+	public int getMaxDepth() {
+		return maxDepth;
+	}
+
+	public int getPeakTrailSize() {
+		return peakTrailSize;
+	}
+
+	public long getTotalNanos() {
+		return totalNanos;
+	}
+
+	public long getPropagateNanos() {
+		return propagateNanos;
+	}
+
+	public long getStrategyNanos() {
+		return strategyNanos;
+	}
+
+	public long getGuessNanos() {
+		return guessNanos;
+	}
+
+	public long getBacktrackNanos() {
+		return backtrackNanos;
+	}
+
+	/**
+	 * This method returns the counters as one line of JSON. Times of the
+	 * parallel search add up the time of every task, so they may be larger
+	 * than totalNanos.
+	 *
+	 * @return String
+	 */
+	public String toJson() {
+		return "{\"dimension\":" + dimension + ",\"givens\":" + numGivens + ",\"solved\":" + solved
+				+ ",\"loops\":" + numLooped + ",\"nakedSingles\":" + nakedSingles + ",\"hiddenSingles\":" + hiddenSingles
+				+ ",\"strategyEliminations\":" + strategyEliminations + ",\"guesses\":" + guesses
+				+ ",\"backtracks\":" + backtracks + ",\"nogoodsLearned\":" + nogoodsLearned
+				+ ",\"nogoodPrunes\":" + nogoodPrunes + ",\"levelsSkipped\":" + levelsSkipped + ",\"maxDepth\":" + maxDepth + ",\"peakTrailSize\":" + peakTrailSize
+				+ ",\"totalNanos\":" + totalNanos + ",\"propagateNanos\":" + propagateNanos
+				+ ",\"strategyNanos\":" + strategyNanos + ",\"guessNanos\":" + guessNanos
+				+ ",\"backtrackNanos\":" + backtrackNanos + "}";
+	}
+}
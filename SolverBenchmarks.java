@@ -0,0 +1,239 @@
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class is the benchmark suite of my Sudoku solving program. It measures
+ * the full solve of every sampleInput*.txt file and the hot operations of
+ * the solver: removing a possible value from a Cell, updating the
+ * neighboring Cells of a set value, counting errors, making and taking
+ * back a guess, and the moves and hints of a BoardSession.
+ *
+ * Every benchmark runs like a JMH benchmark in throughput-per-call mode: a
+ * few warmup iterations let the JVM compile the code, then each measurement
+ * iteration calls the operation for a fixed time. The mean time per
+ * operation, its standard deviation over the iterations and the bytes
+ * allocated per operation (from the thread allocation counter, like JMH's gc
+ * profiler) are printed, and with "--csv file" they are written to a file so
+ * results can be compared between releases.
+ *
+ * @author devankarsann
+ */
+
+public class SolverBenchmarks {
+
+	/**
+	 * This interface is one benchmarked operation.
+	 */
+	interface Operation {
+		void run() throws IOException;
+	}
+
+	// results are added here so the JIT compiler can't skip the operations
+	static long sink;
+
+	private int warmupIterations = 3;
+	private int measurementIterations = 5;
+	private long iterationNanos = 500_000_000L;
+	private String filter = null;
+	private List<String> results = new ArrayList<String>();
+
+	/**
+	 * This is the main method of the benchmark suite.
+	 *
+	 * @param args, optionally "--warmup n" (3), "--iterations n" (5),
+	 * "--time ms" per iteration (500), "--csv file" and a part of the names
+	 * of the benchmarks to run
+	 * @throws IOException
+	 */
+	public static void main(String[] args) throws IOException {
+		SolverBenchmarks suite = new SolverBenchmarks();
+		String csv = null;
+		for (int i = 0; i < args.length; i++) {
+			if (args[i].equals("--warmup") && i + 1 < args.length)
+				suite.warmupIterations = Integer.parseInt(args[++i]);
+			else if (args[i].equals("--iterations") && i + 1 < args.length)
+				suite.measurementIterations = Integer.parseInt(args[++i]);
+			else if (args[i].equals("--time") && i + 1 < args.length)
+				suite.iterationNanos = Long.parseLong(args[++i]) * 1_000_000L;
+			else if (args[i].equals("--csv") && i + 1 < args.length)
+				csv = args[++i];
+			else
+				suite.filter = args[i];
+		}
+
+		System.out.printf(" %-40s %14s %12s %12s%n", "benchmark", "time/op (ns)", "error (ns)", "alloc (B/op)");
+		suite.runAll();
+
+		if (csv != null) {
+			Writer writer = new FileWriter(csv);
+			writer.write("benchmark,ns_per_op,error_ns,bytes_per_op\n");
+			for (String line : suite.results)
+				writer.write(line + "\n");
+			writer.close();
+		}
+	}
+
+	/**
+	 * This method sets up and runs every benchmark whose name matches the filter.
+	 *
+	 * @throws IOException
+	 */
+	void runAll() throws IOException {
+		// full solves, one per sample file
+		File[] samples = new File(".").listFiles((dir, name) -> name.startsWith("sampleInput") && name.endsWith(".txt"));
+		Arrays.sort(samples);
+		for (File sample : samples) {
+			final int[] cells = readPuzzle(sample.getName());
+			final int dimension = (int) Math.round(Math.sqrt(cells.length));
+			final SudokuSolver solver = new SudokuSolver();
+			run("solve " + sample.getName(), () -> sink += solver.solve(cells, dimension)[0]);
+		}
+
+		// removing every possible value from a Cell, one by one
+		final Cell cell = new Cell(9);
+		run("Cell.setValueToFalse (9 values)", () -> {
+			cell.reset();
+			for (int v = 1; v <= 9; v++)
+				sink += cell.setValueToFalse(v) ? 1 : 0;
+		});
+
+		// loading a puzzle, with and without updating the neighboring Cells of
+		// the givens; the difference is the cost of updateGrid
+		final int[] easy = readPuzzle("sampleInput1.txt");
+		final SudokuSolver loaded = new SudokuSolver();
+		run("load sampleInput1", () -> {
+			loaded.load(easy, 9);
+			sink += loaded.getNumUnknown();
+		});
+		run("load + updateGrid of every given", () -> {
+			loaded.load(easy, 9);
+			for (int i = 0; i < easy.length; i++) {
+				if (easy[i] != 0)
+					loaded.updateGrid(i);
+			}
+			loaded.clearQueues();
+			sink += loaded.getNumUnknown();
+		});
+
+		run("numberOfErrors", () -> sink += loaded.numberOfErrors());
+
+		// a guess on the hard sample once its givens were removed from the
+		// possible values of their neighboring Cells, then taken back;
+		// this replaced the grid snapshot which setCellGuess used to make
+		final SudokuSolver guessing = new SudokuSolver();
+		int[] hard = readPuzzle("sampleInput5.txt");
+		guessing.load(hard, 9);
+		for (int i = 0; i < hard.length; i++) {
+			if (hard[i] != 0)
+				guessing.updateGrid(i);
+		}
+		guessing.clearQueues();
+		run("setCellGuess + undo", () -> {
+			guessing.setCellGuess();
+			guessing.undoLastGuess();
+			sink += guessing.trailSize;
+		});
+
+		// the moves of a game frontend on the hard sample: a value placed and
+		// erased again, a value of the solution placed and the board checked
+		// (answered without a search), and a hint
+		final BoardSession session = new BoardSession(hard, 9);
+		final BoardSession.Hint first = session.nextHint();
+		run("BoardSession place + erase", () -> {
+			session.place(first.getRow(), first.getCol(), first.getValue());
+			session.erase(first.getRow(), first.getCol());
+			sink += session.candidates(first.getRow(), first.getCol()).length;
+		});
+		run("BoardSession place + isStillSolvable", () -> {
+			session.place(first.getRow(), first.getCol(), first.getValue());
+			sink += session.isStillSolvable() ? 1 : 0;
+			session.erase(first.getRow(), first.getCol());
+		});
+		run("BoardSession nextHint", () -> sink += session.nextHint().getValue());
+	}
+
+	/**
+	 * This method runs one benchmark and prints its result.
+	 *
+	 * @param name of the benchmark
+	 * @param operation, the code to measure
+	 * @throws IOException
+	 */
+	void run(String name, Operation operation) throws IOException {
+		if (filter != null && !name.contains(filter))
+			return;
+		for (int i = 0; i < warmupIterations; i++)
+			iteration(operation);
+		double[] nanosPerOp = new double[measurementIterations];
+		double bytesPerOp = 0;
+		for (int i = 0; i < measurementIterations; i++) {
+			double[] result = iteration(operation);
+			nanosPerOp[i] = result[0];
+			bytesPerOp += result[1] / measurementIterations;
+		}
+		double mean = 0;
+		for (double value : nanosPerOp)
+			mean += value / nanosPerOp.length;
+		double variance = 0;
+		for (double value : nanosPerOp)
+			variance += (value - mean) * (value - mean) / Math.max(1, nanosPerOp.length - 1);
+		double error = Math.sqrt(variance);
+		System.out.printf(" %-40s %14.1f %12.1f %12.1f%n", name, mean, error, bytesPerOp);
+		results.add(String.format("\"%s\",%.1f,%.1f,%.1f", name, mean, error, bytesPerOp));
+	}
+
+	/**
+	 * This method calls the operation until the iteration time is used up.
+	 *
+	 * @return double[], nanoseconds and bytes allocated per operation
+	 * @throws IOException
+	 */
+	private double[] iteration(Operation operation) throws IOException {
+		long bytesBefore = allocatedBytes();
+		long start = System.nanoTime();
+		long end = start + iterationNanos;
+		long ops = 0;
+		long now;
+		do {
+			operation.run();
+			ops++;
+			now = System.nanoTime();
+		} while (now < end);
+		long bytes = bytesBefore < 0 ? -1 : allocatedBytes() - bytesBefore;
+		return new double[] { (double) (now - start) / ops, bytes < 0 ? Double.NaN : (double) bytes / ops };
+	}
+
+	/**
+	 * This method returns the number of bytes the current thread allocated so
+	 * far, or -1 if the JVM doesn't count them.
+	 *
+	 * @return long
+	 */
+	private static long allocatedBytes() {
+		java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (bean instanceof com.sun.management.ThreadMXBean)
+			return ((com.sun.management.ThreadMXBean) bean).getCurrentThreadAllocatedBytes();
+		return -1;
+	}
+
+	/**
+	 * This method reads the first puzzle of a file.
+	 *
+	 * @return int[]
+	 * @throws IOException
+	 */
+	static int[] readPuzzle(String fileName) throws IOException {
+		PuzzleReader reader = new PuzzleReader(fileName);
+		int[] cells = reader.next();
+		reader.close();
+		if (cells == null)
+			throw new IOException(fileName + ": no puzzle found");
+		return cells;
+	}
+}
@@ -0,0 +1,178 @@
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * This class writes the compact binary log of the steps of a SudokuSolver.
+ * Instead of the text and grids of the solution steps, every value which is
+ * set, every guess and every backtrack is one record of 4 bytes (a guess
+ * also carries the possible values of its Cell), so logging a hard puzzle
+ * costs a fraction of the full trace. StepReplay reads the log and prints
+ * the solution steps from it in the format of the full trace.
+ *
+ * format: the int MAGIC and a version byte, then one record after another,
+ * each starting with its kind byte
+ *
+ * START      dimension (short), dimension * dimension givens (byte each)
+ * NAKED_SINGLE, HIDDEN_SINGLE, BACKTRACK, SPLIT, BACKJUMP
+ *            cell index (short), value (byte)
+ * GUESS      cell index (short), value (byte), number of possible values of
+ *            the Cell (byte), each possible value (byte)
+ * STRATEGY   name of the strategy (UTF), number of possible values removed (int)
+ * NOGOODS    cell index (short), number of possible values removed (int)
+ * SOLUTION   number of the solution (int), while solutions are counted
+ * END        SOLVED, UNSOLVED, or COUNTED if the solutions were counted (byte)
+ *
+ * A log may hold any number of puzzles, each from START to END.
+ *
+ * @author devankarsann
+ */
+
+public class StepLog implements Closeable {
+
+	// "SDKL"
+	static final int MAGIC = 0x53444B4C;
+	static final int VERSION = 2;
+	static final int START = 0;
+	// a Cell with one possible value (part 2)
+	static final int NAKED_SINGLE = 1;
+	// the only Cell of a unit where a value is possible (part 3)
+	static final int HIDDEN_SINGLE = 2;
+	static final int GUESS = 3;
+	// the last guess was taken back, its value is not possible in its Cell
+	static final int BACKTRACK = 4;
+	static final int STRATEGY = 5;
+	// a value found by a task of the parallel search
+	static final int SPLIT = 6;
+	static final int END = 7;
+	// the last guess was taken back without learning anything about its
+	// value, since the error didn't depend on it (nogood learning)
+	static final int BACKJUMP = 8;
+	// learned nogoods removed possible values of the Cell about to be guessed
+	static final int NOGOODS = 9;
+	// a solution was found while counting, the search goes on
+	static final int SOLUTION = 10;
+	// how a puzzle ended, the byte of END
+	static final int UNSOLVED = 0;
+	static final int SOLVED = 1;
+	static final int COUNTED = 2;
+
+	private DataOutputStream out;
+
+	/**
+	 * This is the constructor method for a StepLog object. The stream is
+	 * buffered, so records are only written in large blocks.
+	 *
+	 * @param out, where the log is written
+	 * @throws IOException
+	 */
+	public StepLog(OutputStream out) throws IOException {
+		this.out = new DataOutputStream(new BufferedOutputStream(out, 1 << 16));
+		this.out.writeInt(MAGIC);
+		this.out.writeByte(VERSION);
+	}
+
+	/**
+	 * This method starts the steps of a puzzle.
+	 *
+	 * @param values, dimension * dimension givens row by row, 0 for unknown values
+	 * @param dimension, number of rows and columns
+	 * @throws IOException
+	 */
+	void start(int[] values, int dimension) throws IOException {
+		out.writeByte(START);
+		out.writeShort(dimension);
+		for (int value : values)
+			out.writeByte(value);
+	}
+
+	/**
+	 * This method logs one value which was set, guessed or taken back.
+	 *
+	 * @param kind, e.g. NAKED_SINGLE
+	 * @param index, number of the Cell, row * dimension + column
+	 * @param value, the value of the step
+	 * @throws IOException
+	 */
+	void record(int kind, int index, int value) throws IOException {
+		out.writeByte(kind);
+		out.writeShort(index);
+		out.writeByte(value);
+	}
+
+	/**
+	 * This method logs a guess along with the possible values of its Cell, so
+	 * StepReplay shows them like the solution steps do.
+	 *
+	 * @param index, number of the Cell, row * dimension + column
+	 * @param value, the guessed value
+	 * @param cell, the Cell before the guess is set
+	 * @throws IOException
+	 */
+	void recordGuess(int index, int value, Cell cell) throws IOException {
+		record(GUESS, index, value);
+		out.writeByte(cell.getNumPossible());
+		for (int v = cell.getLowestPossible(); v != 0; v = cell.getNextPossible(v))
+			out.writeByte(v);
+	}
+
+	/**
+	 * This method logs the possible values of a Cell which were removed by
+	 * learned nogoods before a guess.
+	 *
+	 * @param index, number of the Cell, row * dimension + column
+	 * @param removed, number of possible values removed
+	 * @throws IOException
+	 */
+	void recordNogoods(int index, long removed) throws IOException {
+		out.writeByte(NOGOODS);
+		out.writeShort(index);
+		out.writeInt((int) Math.min(removed, Integer.MAX_VALUE));
+	}
+
+	/**
+	 * This method logs an elimination strategy which removed possible values.
+	 *
+	 * @param name of the strategy
+	 * @param removed, number of possible values removed
+	 * @throws IOException
+	 */
+	void recordStrategy(String name, long removed) throws IOException {
+		out.writeByte(STRATEGY);
+		out.writeUTF(name);
+		out.writeInt((int) Math.min(removed, Integer.MAX_VALUE));
+	}
+
+	/**
+	 * This method logs a solution which was found while counting solutions.
+	 *
+	 * @param number, 1 for the first solution
+	 * @throws IOException
+	 */
+	void recordSolution(int number) throws IOException {
+		out.writeByte(SOLUTION);
+		out.writeInt(number);
+	}
+
+	/**
+	 * This method ends the steps of a puzzle.
+	 *
+	 * @param outcome, SOLVED, UNSOLVED or COUNTED
+	 * @throws IOException
+	 */
+	void end(int outcome) throws IOException {
+		out.writeByte(END);
+		out.writeByte(outcome);
+	}
+
+	/**
+	 * This method writes what is left in the buffer and closes the stream.
+	 *
+	 * @throws IOException
+	 */
+	public void close() throws IOException {
+		out.close();
+	}
+}
@@ -0,0 +1,187 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * This is the replay tool of the binary step log of my Sudoku solving program
+ * (see StepLog). It reads a log, applies its steps to the givens and writes
+ * the solution steps as text in the format of "--trace full", with the same
+ * lines and grids for every value set, guess and backtrack, so a cheap log
+ * of a slow solve can be turned into the full view afterwards and compared
+ * with a full trace line by line. The lines which only follow the loops of
+ * the solver, e.g. "there are 23 set values in the grid", are not logged and
+ * are left out; every other line is the same as in the full trace.
+ *
+ * $ java Solver --trace off --step-log steps.bin sampleInput5.txt
+ * $ java StepReplay steps.bin solutionSteps
+ *
+ * @author devankarsann
+ */
+
+public class StepReplay {
+
+	/**
+	 * This is the main method of the replay tool.
+	 *
+	 * @param args, the step log and optionally the output file (the console by default)
+	 * @throws IOException
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 1) {
+			System.out.println("usage: java StepReplay steplog [output]");
+			return;
+		}
+		DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(args[0]), 1 << 16));
+		Writer writer = new BufferedWriter(args.length > 1 ? new FileWriter(args[1]) : new OutputStreamWriter(System.out), 1 << 16);
+		try {
+			replay(in, writer);
+		} finally {
+			writer.close();
+			in.close();
+		}
+	}
+
+	/**
+	 * This method writes the solution steps of every puzzle in a step log.
+	 *
+	 * @param in, the step log
+	 * @param writer, where the solution steps are written
+	 * @throws IOException, also if the log is not a step log or is cut off
+	 */
+	static void replay(DataInputStream in, Writer writer) throws IOException {
+		if (in.readInt() != StepLog.MAGIC)
+			throw new IOException("not a step log");
+		int version = in.readUnsignedByte();
+		if (version != StepLog.VERSION)
+			throw new IOException("unknown step log version: " + version);
+
+		int dimension = 0;
+		int[] values = null;
+		// Cells set since the givens, and where each pending guess started in that list
+		int[] setCells = new int[0];
+		int numSetCells = 0;
+		int numGivens = 0;
+		int[] guessMarks = new int[16];
+		int numGuesses = 0;
+		int numPuzzles = 0;
+		// loads a grid to count its unknown values and errors like Solver does
+		SudokuSolver checker = new SudokuSolver();
+
+		int kind;
+		while ((kind = readKind(in)) >= 0) {
+			if (kind == StepLog.START) {
+				dimension = in.readUnsignedShort();
+				values = new int[dimension * dimension];
+				for (int i = 0; i < values.length; i++)
+					values[i] = in.readUnsignedByte();
+				setCells = new int[values.length];
+				numSetCells = 0;
+				numGuesses = 0;
+				numPuzzles++;
+				checker.load(values, dimension);
+				numGivens = values.length - checker.getNumUnknown();
+				if (numPuzzles > 1)
+					writer.write("\n puzzle " + numPuzzles + "\n");
+				writer.write("\n original grid\n\n" + SudokuSolver.formatGrid(values, dimension));
+				writer.write("\n\n there are " + checker.getNumUnknown() + " unknown values");
+				writer.write("\n" + checker.checkGridForErrors());
+				continue;
+			}
+			if (kind == StepLog.STRATEGY) {
+				String name = in.readUTF();
+				writer.write("\n " + name + " removed " + in.readInt() + " possible values\n");
+				continue;
+			}
+			if (kind == StepLog.SOLUTION) {
+				writer.write("\n solution " + in.readInt() + " found, the search goes on\n");
+				continue;
+			}
+			if (kind == StepLog.END) {
+				// the number of solutions of a count is printed by Solver, with its limit
+				int outcome = in.readUnsignedByte();
+				if (outcome == StepLog.SOLVED) {
+					checker.load(values, dimension);
+					writer.write("\n\n completed grid\n\n" + SudokuSolver.formatGrid(values, dimension));
+					writer.write("\n" + checker.checkGridForErrors());
+				} else if (outcome == StepLog.UNSOLVED) {
+					writer.write(" umm... try again?\n");
+				}
+				continue;
+			}
+			if (values == null)
+				throw new IOException("step before the start of a puzzle");
+			int index = in.readUnsignedShort();
+			int row = index / dimension;
+			int col = index % dimension;
+			if (kind == StepLog.NOGOODS) {
+				writer.write("\n learned nogoods removed " + in.readInt() + " possible values of row: " + row + " col: " + col + "\n");
+				continue;
+			}
+			int value = in.readUnsignedByte();
+			int numSet = numGivens + numSetCells;
+			if (kind == StepLog.BACKTRACK || kind == StepLog.BACKJUMP) {
+				// every value set since the guess is taken back, the guess too
+				int mark = guessMarks[--numGuesses];
+				while (numSetCells > mark)
+					values[setCells[--numSetCells]] = 0;
+				if (kind == StepLog.BACKJUMP) {
+					writer.write("\n guess row: " + row + " col: " + col + " = " + value + " is taken back, the error doesn't depend on it");
+				} else {
+					writer.write("\n bad guess update... row: " + row + " col: " + col + " is not " + value);
+					writer.write("\n grid state AFTER undo + bad guess update)\nnumber of guesses: " + numGuesses + "\n" + SudokuSolver.formatGrid(values, dimension));
+				}
+				continue;
+			}
+			if (kind == StepLog.GUESS) {
+				StringBuilder possible = new StringBuilder("[");
+				int numPossible = in.readUnsignedByte();
+				for (int k = 0; k < numPossible; k++)
+					possible.append(k == 0 ? "" : ", ").append(in.readUnsignedByte());
+				writer.write("\n grid before guess\n" + SudokuSolver.formatGrid(values, dimension));
+				writer.write("\n cellForGuessing is: row " + row + ", col " + col + ", possible nums = " + possible + "], guess = " + value + "\n");
+				if (numGuesses == guessMarks.length)
+					guessMarks = Arrays.copyOf(guessMarks, numGuesses * 2);
+				guessMarks[numGuesses++] = numSetCells;
+				writer.write("\n guess was SAVED, number of guesses: " + numGuesses + "\n");
+			} else if (kind == StepLog.NAKED_SINGLE) {
+				writer.write("\n\n cell in row: " + row + ", col: " + col + " (value = 0) has one possible value: [" + value + "]\n");
+				writer.write("\n grid before solution zero update: " + "\n numSet: " + numSet + "\n" + SudokuSolver.formatGrid(values, dimension));
+			} else if (kind == StepLog.HIDDEN_SINGLE) {
+				writer.write("\nsecond solution technique will be used\ncell in row: " + row + ", col: " + col + " equals " + value + "\n"
+						+ SudokuSolver.formatGrid(values, dimension));
+			} else if (kind != StepLog.SPLIT) {
+				throw new IOException("unknown step kind: " + kind);
+			}
+			values[index] = value;
+			setCells[numSetCells++] = index;
+			// the values found by the parallel search are set without any solution steps
+			if (kind == StepLog.GUESS)
+				writer.write("\n updated grid after guess\n" + SudokuSolver.formatGrid(values, dimension));
+			else if (kind == StepLog.NAKED_SINGLE)
+				writer.write("\n grid after solution zero update: " + "\n numSet: " + (numSet + 1) + "\n" + SudokuSolver.formatGrid(values, dimension));
+			else if (kind == StepLog.HIDDEN_SINGLE)
+				writer.write("\nsecond solution technique was used\n" + SudokuSolver.formatGrid(values, dimension));
+		}
+	}
+
+	/**
+	 * This method reads the kind of the next record.
+	 *
+	 * @return int, the kind, or -1 at the end of the log
+	 * @throws IOException
+	 */
+	private static int readKind(DataInputStream in) throws IOException {
+		try {
+			return in.readUnsignedByte();
+		} catch (EOFException e) {
+			return -1;
+		}
+	}
+}
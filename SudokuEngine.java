@@ -0,0 +1,96 @@
+import java.io.IOException;
+
+/**
+ * This interface is implemented by every solving engine of my Sudoku solving
+ * program, so the drivers can switch between them with a command-line flag.
+ * An engine object solves one puzzle at a time and can be reused for the next.
+ *
+ * @author devankarsann
+ */
+
+public interface SudokuEngine {
+
+	// largest number of rows and columns of a puzzle, a 7x7 box size
+	int MAX_DIMENSION = 49;
+
+	/**
+	 * This method solves a puzzle and returns its values row by row, or null if
+	 * the puzzle has an error in its input or no solution.
+	 *
+	 * @param cells, dimension * dimension values row by row, 0 for unknown values
+	 * @param dimension, number of rows and columns
+	 * @return int[]
+	 * @throws IOException, only if writing solution steps fails
+	 */
+	int[] solve(int[] cells, int dimension) throws IOException;
+
+	/**
+	 * This method checks that a puzzle is at most MAX_DIMENSION x
+	 * MAX_DIMENSION, has dimension * dimension values and that every value is
+	 * 0 to dimension, so no engine takes a value which doesn't fit its grid for
+	 * a given.
+	 *
+	 * @param cells, values of the puzzle row by row, 0 for unknown values
+	 * @param dimension, number of rows and columns
+	 * @throws IllegalArgumentException, naming the row and column of a wrong value
+	 */
+	static void checkPuzzle(int[] cells, int dimension) {
+		if (dimension > MAX_DIMENSION)
+			throw new IllegalArgumentException("a " + dimension + "x" + dimension + " grid is larger than " + MAX_DIMENSION + "x" + MAX_DIMENSION);
+		if (cells.length != dimension * dimension)
+			throw new IllegalArgumentException(cells.length + " values given for a " + dimension + "x" + dimension + " grid");
+		for (int index = 0; index < cells.length; index++) {
+			if (cells[index] < 0 || cells[index] > dimension)
+				throw new IllegalArgumentException("row " + index / dimension + ", col " + index % dimension + ": " + cells[index] + " is not a value of a " + dimension + "x" + dimension + " grid");
+		}
+	}
+
+	/**
+	 * This method creates a new engine by its command-line name.
+	 *
+	 * @param name, "techniques" for SudokuSolver, "dlx" for DlxSolver,
+	 * "bitsliced" for BitSlicedSolver or "vector" for VectorSolver
+	 * @return SudokuEngine
+	 */
+	static SudokuEngine create(String name) {
+		if (name.equals("techniques"))
+			return new SudokuSolver();
+		if (name.equals("dlx"))
+			return new DlxSolver();
+		if (name.equals("bitsliced"))
+			return new BitSlicedSolver();
+		if (name.equals("vector"))
+			return new VectorSolver();
+		throw new IllegalArgumentException("unknown engine: " + name + " (expected techniques, dlx, bitsliced or vector)");
+	}
+
+	/**
+	 * This method returns true if the solution keeps every given value and has
+	 * every value exactly once in each row, column and subgrid. It is used to
+	 * check engines against each other, since a puzzle with several solutions
+	 * may be solved differently by each engine.
+	 *
+	 * @param cells, values of the puzzle row by row, 0 for unknown values
+	 * @param solution, values returned by an engine
+	 * @param dimension, number of rows and columns
+	 * @return boolean
+	 */
+	static boolean isSolutionOf(int[] cells, int[] solution, int dimension) {
+		if (solution == null || solution.length != cells.length)
+			return false;
+		Topology topology = Topology.forDimension(dimension);
+		boolean[] seen = new boolean[3 * dimension * (dimension + 1)];
+		for (int i = 0; i < solution.length; i++) {
+			int value = solution[i];
+			if (value < 1 || value > dimension || (cells[i] != 0 && cells[i] != value))
+				return false;
+			for (int k = 0; k < 3; k++) {
+				int index = topology.cellUnits[i * 3 + k] * (dimension + 1) + value;
+				if (seen[index])
+					return false;
+				seen[index] = true;
+			}
+		}
+		return true;
+	}
+}
@@ -0,0 +1,1675 @@
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * This is the solving engine of my Sudoku solving program. A SudokuSolver
+ * object holds the grid of Cells and everything else needed to solve one
+ * puzzle at a time, so several SudokuSolver objects can solve puzzles at once.
+ * 
+ * A SudokuSolver can be reused for any number of puzzles. When the next
+ * puzzle has the same dimension, the grid, the counters and the trail are
+ * reset instead of being allocated again. forCurrentThread() hands out one
+ * reusable SudokuSolver per thread.
+ * 
+ * @author devankarsann
+ *
+ */
+
+public class SudokuSolver implements SudokuEngine {
+
+	// the trail is an undo log of every change made to the grid after the first guess,
+	// each entry packs (cell index << 8) | (kind << 7) | value
+	static final int REMOVED = 0;
+	static final int ASSIGNED = 1;
+	// each guess saves its trail mark, row, column, guessed value and numSet
+	static final int GUESS_SIZE = 5;
+	// branching rules for guesses, which Cell is guessed and which value first
+	static final String[] CELL_RULES = { "last-fewest", "mrv", "mrv-degree" };
+	static final String[] VALUE_RULES = { "lowest", "lcv", "frequency" };
+	static final int LAST_FEWEST = 0;
+	static final int MRV = 1;
+	static final int MRV_DEGREE = 2;
+	static final int LOWEST = 0;
+	static final int LCV = 1;
+	static final int FREQUENCY = 2;
+	// trace levels of the solution steps: none at all, one line per step, or
+	// every step with the grid before and after it
+	static final String[] TRACE_LEVELS = { "off", "steps", "full" };
+	static final int TRACE_OFF = 0;
+	static final int TRACE_STEPS = 1;
+	static final int TRACE_FULL = 2;
+
+	private static final ThreadLocal<SudokuSolver> CONTEXTS = new ThreadLocal<SudokuSolver>();
+
+	// writer and console are null when the solution steps should not be printed,
+	// every write is behind a check of traceLevel, so "off" builds no Strings
+	Writer writer;
+	PrintStream console;
+	int traceLevel = TRACE_OFF;
+	// binary log of the steps, null when no steps are logged, see StepLog
+	StepLog stepLog;
+	Cell[][] grid;
+	// the same Cell objects as 'grid', numbered row by row like in Topology
+	Cell[] cells;
+	Topology topology;
+	// candidate counters, e.g. candidateCounts[unit * (dimension + 1) + value] is
+	// the number of unset Cells of a Topology unit where that value is possible
+	int[] candidateCounts;
+	// set when a unit has a value which is neither set nor possible anywhere
+	boolean valueMissing = false;
+	// worklists of the Cells which are down to one possible value and of the
+	// units where a value is down to one Cell (entries as in candidateCounts),
+	// only these are examined again, each list is a ring of distinct entries
+	int[] cellQueue;
+	boolean[] cellQueued;
+	int cellQueueHead = 0;
+	int cellQueueSize = 0;
+	int[] unitQueue;
+	boolean[] unitQueued;
+	int unitQueueHead = 0;
+	int unitQueueSize = 0;
+	int[] trail = new int[256];
+	int trailSize = 0;
+	int[] guessStates = new int[GUESS_SIZE * 16];
+	int numGuesses = 0;
+	int numSet = 0;
+	int totalErrors = 0;
+	// occupancy counters, e.g. rowCounts[row * (dimension + 1) + value] is the
+	// number of Cells in that row which were set to that value
+	int[] rowCounts;
+	int[] columnCounts;
+	int[] subGridCounts;
+	int numRowErrors = 0;
+	int numColumnErrors = 0;
+	int numSubGridErrors = 0;
+	// number of Cells which are not set and have no possible values left
+	int numEmptyCells = 0;
+	int numLooped = 0;
+	int dimension;
+	// parallel search: the first splitDepth guesses are split into one ForkJoin
+	// task per possible value instead of being tried one after another
+	ForkJoinPool pool;
+	int splitDepth = 0;
+	// set as soon as any task found a solution, the other tasks stop
+	AtomicBoolean cancelled;
+	// part 5: elimination strategies which run before a guess is made, and how
+	// often each one removed possible values, how many and the time it took
+	EliminationStrategy[] strategies = new EliminationStrategy[0];
+	long[] strategyHits = new long[0];
+	long[] strategyRemoved = new long[0];
+	long[] strategyNanos = new long[0];
+	long numEliminated = 0;
+	// counters of the current solve, see SolveStats
+	SolveStats stats = new SolveStats();
+	int cellRule = LAST_FEWEST;
+	int valueRule = LOWEST;
+	// number of solutions the search looks for, see countSolutions
+	int solutionLimit = 1;
+	// nogood learning, off while 'nogoods' is null: the guess levels each
+	// removed possible value (removedBy[cell * (dimension + 1) + value]) and
+	// each set value (assignedBy[cell]) depend on, bit level - 1 for guess
+	// level 'level', the levels from 64 on share the last bit
+	NogoodStore nogoods;
+	long[] removedBy;
+	long[] assignedBy;
+	int[] nogood = new int[NogoodStore.MAX_LENGTH];
+
+	/**
+	 * This is the constructor method for a SudokuSolver object which doesn't
+	 * print any solution steps. The grid is created by the first puzzle.
+	 */
+	public SudokuSolver() {
+		this(null, null);
+	}
+
+	/**
+	 * This is the constructor method for a SudokuSolver object.
+	 * 
+	 * @param writer, where the solution steps are written, or null
+	 * @param console, where the progress is printed, or null
+	 */
+	public SudokuSolver(Writer writer, PrintStream console) {
+		this.writer = writer;
+		this.console = console;
+		traceLevel = writer == null ? TRACE_OFF : TRACE_FULL;
+	}
+
+	/**
+	 * This method chooses how much of the solution steps is written: "off"
+	 * writes nothing, "steps" writes one line per step and "full" also writes
+	 * the grid before and after each step (the default when there is a writer).
+	 * Without a writer the level stays "off".
+	 * 
+	 * @param level, one of TRACE_LEVELS
+	 */
+	public void setTraceLevel(String level) {
+		int found = Arrays.asList(TRACE_LEVELS).indexOf(level);
+		if (found < 0)
+			throw new IllegalArgumentException("unknown trace level: " + level);
+		traceLevel = writer == null ? TRACE_OFF : found;
+	}
+
+	/**
+	 * This method makes the SudokuSolver log every value it sets, guess and
+	 * backtrack to a StepLog, independent of the trace level. StepReplay turns
+	 * the log back into solution steps.
+	 * 
+	 * @param stepLog, where the steps are logged, or null
+	 */
+	public void setStepLog(StepLog stepLog) {
+		this.stepLog = stepLog;
+	}
+
+	/**
+	 * This method makes the SudokuSolver split its search over a ForkJoinPool.
+	 * Whenever a guess has to be made and fewer than splitDepth guesses were
+	 * split before it, every possible value of the guessed Cell becomes its own
+	 * task, and idle workers steal those tasks. A splitDepth of 0 turns the
+	 * parallel search off, which is the default.
+	 * 
+	 * @param pool, worker threads, or null for the common pool
+	 * @param splitDepth, number of guess levels which are split
+	 */
+	public void setParallelism(ForkJoinPool pool, int splitDepth) {
+		this.pool = pool == null ? ForkJoinPool.commonPool() : pool;
+		this.splitDepth = splitDepth;
+	}
+
+	/**
+	 * This method chooses the elimination strategies which run in part 5, in
+	 * the given order. No strategies are used by default.
+	 * 
+	 * @param strategies, e.g. EliminationStrategy.createAll("all")
+	 */
+	public void setStrategies(EliminationStrategy[] strategies) {
+		this.strategies = strategies;
+		strategyHits = new long[strategies.length];
+		strategyRemoved = new long[strategies.length];
+		strategyNanos = new long[strategies.length];
+	}
+
+	/**
+	 * This method chooses how guesses are made. Cell rules:
+	 * "last-fewest" (the default) guesses the last Cell with the fewest
+	 * possible values, "mrv" the first one, "mrv-degree" the one of them with
+	 * the most unset neighboring Cells. Value rules: "lowest" (the default)
+	 * tries the lowest possible value first, "lcv" the value which is possible
+	 * in the fewest neighboring Cells, "frequency" the value which is possible
+	 * in the fewest Cells of the guessed Cell's row, column and subgrid
+	 * together (read from the candidate counters, so a neighboring Cell in two
+	 * of them counts twice).
+	 * 
+	 * @param cellRule, one of CELL_RULES
+	 * @param valueRule, one of VALUE_RULES
+	 */
+	public void setBranching(String cellRule, String valueRule) {
+		this.cellRule = indexOf(CELL_RULES, cellRule);
+		this.valueRule = indexOf(VALUE_RULES, valueRule);
+	}
+
+	/**
+	 * This method switches nogood learning on, keeping up to 'limit' nogoods,
+	 * or off with a limit of 0 (the default). When a guess leads to an error,
+	 * the guesses the error depends on are found from the levels recorded with
+	 * every removed possible value and set value. Together they are a nogood,
+	 * values which can't all be set in a solution: it is stored, and
+	 * the search goes back to the latest of them right away, taking back the
+	 * guesses after it without trying their other values (backjumping).
+	 * Before a guess, a possible value of the guessed Cell is removed if it
+	 * would complete a stored nogood with the values which are already set.
+	 * 
+	 * @param limit, largest number of nogoods kept, see NogoodStore
+	 */
+	public void setNogoodLimit(int limit) {
+		nogoods = limit > 0 ? new NogoodStore(limit) : null;
+		removedBy = null;
+		assignedBy = null;
+		if (grid != null)
+			prepareNogoods();
+	}
+
+	/**
+	 * This method empties the nogood store and sizes the levels for the
+	 * dimension of the grid.
+	 */
+	private void prepareNogoods() {
+		if (nogoods == null)
+			return;
+		int numLiterals = dimension * dimension * (dimension + 1);
+		if (removedBy == null || removedBy.length != numLiterals) {
+			removedBy = new long[numLiterals];
+			assignedBy = new long[dimension * dimension];
+		}
+		nogoods.clear(numLiterals);
+	}
+
+	/**
+	 * This method returns the nogood store, null if nogood learning is off.
+	 * 
+	 * @return NogoodStore
+	 */
+	public NogoodStore getNogoods() {
+		return nogoods;
+	}
+
+	/**
+	 * This method returns the position of a rule name in a list of names.
+	 * 
+	 * @return int
+	 */
+	private static int indexOf(String[] names, String name) {
+		for (int i = 0; i < names.length; i++) {
+			if (names[i].equals(name))
+				return i;
+		}
+		throw new IllegalArgumentException("unknown branching rule: " + name + " (expected one of " + String.join(", ", names) + ")");
+	}
+
+	/**
+	 * This method returns the counters of the last solve: values set by each
+	 * technique, guesses, backtracks, search depth and time per phase. The
+	 * object is cleared for the next puzzle, so it has to be read (or its
+	 * toJson() kept) before the SudokuSolver is used again.
+	 * 
+	 * @return SolveStats
+	 */
+	public SolveStats getStats() {
+		return stats;
+	}
+
+	/**
+	 * This method returns how many guesses were made during the last solve,
+	 * including the ones which were taken back.
+	 * 
+	 * @return int
+	 */
+	public int getNumGuessesMade() {
+		return (int) stats.guesses;
+	}
+
+	/**
+	 * This method returns one line per elimination strategy with the number of
+	 * times it removed possible values, the number of values removed and the
+	 * time spent in it during the last solve.
+	 * 
+	 * @return String
+	 */
+	public String getStrategyReport() {
+		String str = "";
+		for (int s = 0; s < strategies.length; s++) {
+			str += String.format("\n %-15s used %d times, %d possible values removed, %.3f ms", strategies[s].getName(),
+					strategyHits[s], strategyRemoved[s], strategyNanos[s] / 1e6);
+		}
+		return str;
+	}
+
+	/**
+	 * This method returns the SudokuSolver of the calling thread, creating it
+	 * on first use. It doesn't print any solution steps.
+	 * 
+	 * @return SudokuSolver
+	 */
+	public static SudokuSolver forCurrentThread() {
+		SudokuSolver solver = CONTEXTS.get();
+		if (solver == null) {
+			solver = new SudokuSolver();
+			CONTEXTS.set(solver);
+		}
+		return solver;
+	}
+
+	/**
+	 * This method solves a puzzle and returns its values row by row, or null if
+	 * the puzzle has an error in its input or no solution. The SudokuSolver
+	 * can be used for the next puzzle right away.
+	 * 
+	 * @param cells, dimension * dimension values row by row, 0 for unknown values
+	 * @param dimension, number of rows and columns
+	 * @return int[]
+	 * @throws IOException, only if writing the solution steps fails
+	 */
+	public int[] solve(int[] cells, int dimension) throws IOException {
+		load(cells, dimension);
+		if (hasInputErrors() || !solve())
+			return null;
+		int[] solution = new int[dimension * dimension];
+		for (int i = 0; i < solution.length; i++)
+			solution[i] = grid[i / dimension][i % dimension].getCellValue();
+		return solution;
+	}
+
+	/**
+	 * This method resets the SudokuSolver and sets the known values of a new
+	 * puzzle. The grid is only allocated again if the dimension changed.
+	 * 
+	 * @param cells, dimension * dimension values row by row, 0 for unknown values
+	 * @param dimension, number of rows and columns
+	 * @throws IllegalArgumentException, if a value is not 0 to dimension
+	 */
+	public void load(int[] cells, int dimension) {
+		SudokuEngine.checkPuzzle(cells, dimension);
+		if (grid == null || this.dimension != dimension) {
+			this.dimension = dimension;
+			topology = Topology.forDimension(dimension);
+			grid = new Cell[dimension][dimension];
+			this.cells = new Cell[dimension * dimension];
+			for (int i = 0; i < dimension; i++) {
+				for (int j = 0; j < dimension; j++) {
+					grid[i][j] = new Cell(dimension);
+					this.cells[i * dimension + j] = grid[i][j];
+				}
+			}
+			cellQueue = new int[dimension * dimension];
+			cellQueued = new boolean[dimension * dimension];
+			candidateCounts = new int[topology.numUnits * (dimension + 1)];
+			unitQueue = new int[candidateCounts.length];
+			unitQueued = new boolean[candidateCounts.length];
+			cellQueueHead = 0;
+			cellQueueSize = 0;
+			unitQueueHead = 0;
+			unitQueueSize = 0;
+			rowCounts = new int[dimension * (dimension + 1)];
+			columnCounts = new int[dimension * (dimension + 1)];
+			subGridCounts = new int[dimension * (dimension + 1)];
+		}
+		reset();
+		setGivens(cells);
+	}
+
+	/**
+	 * This method clears every value, possibility, counter and guess so the
+	 * grid can be used for another puzzle of the same dimension.
+	 */
+	public void reset() {
+		for (int i = 0; i < dimension; i++) {
+			for (int j = 0; j < dimension; j++) {
+				grid[i][j].reset();
+			}
+		}
+		Arrays.fill(rowCounts, 0);
+		Arrays.fill(columnCounts, 0);
+		Arrays.fill(subGridCounts, 0);
+		numRowErrors = 0;
+		numColumnErrors = 0;
+		numSubGridErrors = 0;
+		numEmptyCells = 0;
+		// every value is possible in every Cell of a unit
+		for (int unit = 0; unit < topology.numUnits; unit++) {
+			candidateCounts[unit * (dimension + 1)] = 0;
+			Arrays.fill(candidateCounts, unit * (dimension + 1) + 1, (unit + 1) * (dimension + 1), dimension);
+		}
+		valueMissing = false;
+		clearQueues();
+		trailSize = 0;
+		numGuesses = 0;
+		numSet = 0;
+		totalErrors = 0;
+		numLooped = 0;
+		cancelled = null;
+		Arrays.fill(strategyHits, 0);
+		Arrays.fill(strategyRemoved, 0);
+		Arrays.fill(strategyNanos, 0);
+		numEliminated = 0;
+		stats.clear();
+		prepareNogoods();
+	}
+	
+	/**
+	 * This method sets the known values of the puzzle. The values are given row
+	 * by row, 0 represents an unknown value.
+	 * 
+	 * @param cells, dimension * dimension values
+	 */
+	private void setGivens(int[] cells) {
+		for (int i = 0; i < dimension; i++) {
+			for (int j = 0; j < dimension; j++) {
+				int currentInt = cells[i * dimension + j];
+				if (currentInt != 0) {
+					setValue(i * dimension + j, currentInt, 0);
+					numSet++;
+				}
+			}
+		}
+	}
+
+	/**
+	 * This method returns true if the input values contain an error, i.e. the
+	 * same value twice within a row, column or subgrid.
+	 * 
+	 * @return boolean
+	 */
+	public boolean hasInputErrors() {
+		return numberOfErrors() > 0;
+	}
+
+	/**
+	 * This method returns true if every Cell of the grid has a value.
+	 * 
+	 * @return boolean
+	 */
+	public boolean isSolved() {
+		return numSet == dimension*dimension;
+	}
+
+	/**
+	 * This method returns the number of Cells whose value is not known yet.
+	 * 
+	 * @return int
+	 */
+	public int getNumUnknown() {
+		return dimension*dimension - numSet;
+	}
+
+	/**
+	 * This method returns how many times the solution techniques were run
+	 * during the last solve.
+	 * 
+	 * @return int
+	 */
+	public int getNumLooped() {
+		return numLooped;
+	}
+
+	/**
+	 * This method returns the value of the Cell at the given row and column,
+	 * 0 if it is unknown.
+	 * 
+	 * @return int
+	 */
+	public int getCellValue(int row, int col) {
+		return grid[row][col].getCellValue();
+	}
+
+	/**
+	 * This method runs the solution techniques until every value is known or
+	 * the puzzle turns out to have no solution. The givens have to be set and
+	 * free of errors.
+	 * 
+	 * @return boolean, true if the puzzle was solved
+	 * @throws IOException
+	 */
+	public boolean solve() throws IOException {
+		return search(1, false) == 1;
+	}
+
+	/**
+	 * This method counts the solutions of a puzzle, e.g. to prove that it has
+	 * exactly one. It is the same search as solve(), but after a solution is
+	 * found, the last guess is taken back as if it led to an error and the
+	 * search goes on with the other values, until 'limit' solutions were found
+	 * or every guess was tried. With a limit of 2 the search stops at the
+	 * second solution, so 0, 1 or 2 means none, unique or "2+". The grid holds
+	 * the last solution only if the limit was reached. The givens have to be
+	 * set and free of errors, and the search isn't split over threads.
+	 * 
+	 * @param limit, number of solutions after which the search stops
+	 * @return int, number of solutions found, at most 'limit'
+	 * @throws IOException
+	 */
+	public int countSolutions(int limit) throws IOException {
+		return search(limit, true);
+	}
+
+	/**
+	 * This method counts the solutions of a new puzzle, see countSolutions(int).
+	 * 
+	 * @param cells, dimension * dimension values row by row, 0 for unknown values
+	 * @param dimension, number of rows and columns
+	 * @param limit, number of solutions after which the search stops
+	 * @return int, 0 if the puzzle has an error in its input
+	 * @throws IOException
+	 */
+	public int countSolutions(int[] cells, int dimension, int limit) throws IOException {
+		load(cells, dimension);
+		if (hasInputErrors())
+			return 0;
+		return search(limit, true);
+	}
+
+	/**
+	 * This method runs the solution techniques until 'limit' solutions were
+	 * found or the search is exhausted.
+	 * 
+	 * @param limit, number of solutions after which the search stops
+	 * @param counting, true if the solutions are counted rather than shown
+	 * @return int, number of solutions found
+	 * @throws IOException
+	 */
+	private int search(int limit, boolean counting) throws IOException {
+
+		SolveEvent event = new SolveEvent();
+		event.begin();
+		long start = System.nanoTime();
+		stats.dimension = dimension;
+		stats.numGivens = numSet;
+		if (stepLog != null)
+			stepLog.start(printValues(), dimension);
+
+		for (int i = 0; i < dimension; i++) {
+			for (int j = 0; j < dimension; j++) {
+				if (grid[i][j].getValueWasSet() == true) {
+					updateGrid(i * dimension + j);
+				}
+			}
+		}
+		
+		solutionLimit = limit;
+		int numSolutions = 0;
+		while (runSolutionTechniques()) {
+			numSolutions++;
+			if (numSolutions >= limit || numGuesses == 0)
+				break;
+			// the solution is treated like an error, so its guess is taken back
+			if (stepLog != null)
+				stepLog.recordSolution(numSolutions);
+			if (traceLevel != TRACE_OFF)
+				writer.write("\n solution " + numSolutions + " found, the search goes on\n");
+			backtrack(guessLevels());
+		}
+		solutionLimit = 1;
+		boolean solved = numSolutions > 0;
+		stats.solved = solved;
+		stats.peakTrailSize = Math.max(stats.peakTrailSize, trailSize);
+		stats.totalNanos = System.nanoTime() - start;
+		if (stepLog != null)
+			stepLog.end(counting ? StepLog.COUNTED : solved ? StepLog.SOLVED : StepLog.UNSOLVED);
+		event.end();
+		if (event.shouldCommit()) {
+			event.set(stats);
+			event.commit();
+		}
+		return numSolutions;
+	}
+
+	/**
+	 * This method runs the solution techniques on a grid whose known values
+	 * were already removed from the possible values of their neighboring Cells.
+	 * 
+	 * @return boolean, true if the puzzle was solved
+	 * @throws IOException
+	 */
+	boolean runSolutionTechniques() throws IOException {
+
+		boolean found = false;
+
+		while (numSet != dimension*dimension) {
+
+			if (cancelled != null && cancelled.get())
+				return false;
+
+			if (console != null) {
+				console.println(printGrid());
+				console.println("\n there are " + (dimension*dimension - numSet) + " unknown values");
+				console.println(checkGridForErrors());
+			}
+			
+			if (traceLevel != TRACE_OFF)
+				writer.write("\n there are " + numSet + " set values in the grid\n");
+
+			found = false;
+
+			// part 1 start
+			// the condition for this if-statement checks if any guesses have been made
+			// if so, the grid is checked for errors and empty cell domains
+			// those two scenarios decsribe the result of making a bad guess
+			// both checks are constant-time reads of the occupancy counters
+			long phaseStart = System.nanoTime();
+			while (numGuesses > 0 && hasContradiction()) {
+				if (traceLevel != TRACE_OFF) {
+					writer.write("\n fourth solution helper method is being used");
+					writer.write("\n cells where no values are possible: " + numEmptyCells + ", errors: " + totalErrors + ", value missing: " + valueMissing + "\n");
+					if (traceLevel == TRACE_FULL)
+						writer.write("\n grid state BEFORE undo (number of guesses: " + numGuesses + ", trail size: " + trailSize + ")\n" + printGrid());
+				}
+				backtrack(nogoods == null ? guessLevels() : learnNogood());
+			}
+			stats.backtrackNanos += System.nanoTime() - phaseStart;
+			// without any guesses to take back, an empty cell or an error means there is no solution
+			if (numGuesses == 0 && hasContradiction())
+				break;
+			// part 1 end
+			
+			// parts 2 to 4 start
+			// the worklists are examined until nothing is left on them: Cells with
+			// one possible value (part 2) and rows, columns and subgrids where only
+			// one Cell can be a value (part 3). Part 4 found the same values as part 2, since the
+			// known neighboring values are always removed from the possible values
+			phaseStart = System.nanoTime();
+			found = propagate();
+			stats.propagateNanos += System.nanoTime() - phaseStart;
+			// parts 2 to 4 end
+			
+			// part 5 start
+			// the elimination strategies run one after another until one of them
+			// removes possible values, then the worklists take over again
+			boolean eliminated = false;
+			if (numSet < dimension*dimension && hasContradiction() == false && dimension <= 64) {
+				for (int s = 0; s < strategies.length && eliminated == false; s++) {
+					long start = System.nanoTime();
+					long before = numEliminated;
+					eliminated = strategies[s].apply(this);
+					long elapsed = System.nanoTime() - start;
+					strategyNanos[s] += elapsed;
+					stats.strategyNanos += elapsed;
+					if (eliminated) {
+						strategyHits[s]++;
+						strategyRemoved[s] += numEliminated - before;
+						stats.strategyEliminations += numEliminated - before;
+						if (stepLog != null)
+							stepLog.recordStrategy(strategies[s].getName(), numEliminated - before);
+						if (traceLevel != TRACE_OFF)
+							writer.write("\n " + strategies[s].getName() + " removed " + (numEliminated - before) + " possible values\n");
+					}
+				}
+			}
+			// part 5 end
+			
+			// part 6 start
+			// a guess is only made at a fixed point, i.e. when the worklists are empty,
+			// no strategy removed anything and the grid has no empty cells, missing
+			// values or errors
+			if (numSet < dimension*dimension && hasContradiction()) {
+				if (traceLevel != TRACE_OFF)
+					writer.write("\n cells where no values are possible: " + numEmptyCells + ", errors: " + totalErrors + ", value missing: " + valueMissing + "\n");
+			} else if (numSet < dimension*dimension && eliminated == false) {
+				if (traceLevel != TRACE_OFF)
+					writer.write("\n fourth solution technique checking\n");
+				if (splitDepth > 0 && numGuesses == 0 && solutionLimit == 1) {
+					// the rest of the search happens in the tasks
+					return splitSearch();
+				}
+				if (traceLevel != TRACE_OFF)
+					writer.write("\n fourth solution technique used\n");
+				phaseStart = System.nanoTime();
+				setCellGuess();
+				stats.guessNanos += System.nanoTime() - phaseStart;
+			}
+			// part 6 end
+			
+			numLooped++;
+			stats.numLooped++;
+		}
+		return isSolved();
+	}
+
+	/**
+	 * This method takes back the latest guess an error depends on: the grid is
+	 * restored from the trail and the guessed value is removed from the
+	 * possible values of its Cell, so the search goes on with the other
+	 * values. Later guesses had no part in the error and are taken back
+	 * without removing anything. Without nogood learning, 'conflict' holds
+	 * every guess level and the last guess is taken back.
+	 * 
+	 * @param conflict, guess levels the error depends on, see levelBit
+	 * @throws IOException
+	 */
+	private void backtrack(long conflict) throws IOException {
+		valueMissing = false;
+		stats.backtracks++;
+		stats.peakTrailSize = Math.max(stats.peakTrailSize, trailSize);
+		// the last bit stands for every level from 64 on, the last guess among them
+		int level = conflict < 0 ? numGuesses : Math.max(1, 64 - Long.numberOfLeadingZeros(conflict));
+		while (numGuesses > level) {
+			numGuesses--;
+			stats.levelsSkipped++;
+			int skipped = numGuesses * GUESS_SIZE;
+			if (stepLog != null)
+				stepLog.record(StepLog.BACKJUMP, guessStates[skipped + 1] * dimension + guessStates[skipped + 2], guessStates[skipped + 3]);
+			if (traceLevel != TRACE_OFF)
+				writer.write("\n guess row: " + guessStates[skipped + 1] + " col: " + guessStates[skipped + 2] + " = " + guessStates[skipped + 3] + " is taken back, the error doesn't depend on it");
+		}
+		undoLastGuess();
+		int lastGuess = numGuesses * GUESS_SIZE;
+		int row = guessStates[lastGuess + 1];
+		int col = guessStates[lastGuess + 2];
+		int guess = guessStates[lastGuess + 3];
+		// recorded on the trail of the previous guess, if there is one, and
+		// it depends on the other guesses of the error
+		removePossibleValue(row * dimension + col, guess, level >= 64 ? conflict : conflict & ~levelBit(level));
+		if (stepLog != null)
+			stepLog.record(StepLog.BACKTRACK, row * dimension + col, guess);
+		if (traceLevel != TRACE_OFF) {
+			writer.write("\n bad guess update... row: " + row + " col: " + col + " is not " + guess);
+			if (traceLevel == TRACE_FULL)
+				writer.write("\n grid state AFTER undo + bad guess update)\nnumber of guesses: " + numGuesses + "\n" + printGrid());
+		}
+	}
+
+	/**
+	 * This method takes back the last guess: the grid is restored from the
+	 * trail to what it was before the guess, and the guessed value is still
+	 * possible in its Cell. backtrack removes it afterwards.
+	 */
+	void undoLastGuess() {
+		// the grid was at a fixed point when the guess was made, so after
+		// the undo nothing is left to be examined
+		clearQueues();
+		numGuesses--;
+		int lastGuess = numGuesses * GUESS_SIZE;
+		undoTrail(guessStates[lastGuess]);
+		numSet = guessStates[lastGuess + 4];
+	}
+
+	/**
+	 * This method returns the bit of a guess level (1 for the first guess) in
+	 * the levels of removedBy and assignedBy.
+	 * 
+	 * @param level, 1 or more
+	 * @return long
+	 */
+	private static long levelBit(int level) {
+		return level >= 64 ? 1L << 63 : 1L << (level - 1);
+	}
+
+	/**
+	 * This method returns the bits of every pending guess level.
+	 * 
+	 * @return long
+	 */
+	private long guessLevels() {
+		return numGuesses >= 64 ? -1L : (1L << numGuesses) - 1;
+	}
+
+	/**
+	 * This method finds the guess levels an error depends on (see
+	 * conflictLevels) and stores their guesses as a nogood, unless there are
+	 * more than NogoodStore.MAX_LENGTH of them.
+	 * 
+	 * @return long, the guess levels of the error
+	 * @throws IOException
+	 */
+	private long learnNogood() throws IOException {
+		long conflict = conflictLevels();
+		int length = 0;
+		for (int level = 1; level <= numGuesses; level++) {
+			if ((conflict & levelBit(level)) == 0)
+				continue;
+			if (length == NogoodStore.MAX_LENGTH) {
+				length = 0;
+				break;
+			}
+			int guess = (level - 1) * GUESS_SIZE;
+			int index = guessStates[guess + 1] * dimension + guessStates[guess + 2];
+			nogood[length++] = index * (dimension + 1) + guessStates[guess + 3];
+		}
+		if (nogoods.add(nogood, length))
+			stats.nogoodsLearned++;
+		if (traceLevel != TRACE_OFF)
+			writer.write("\n the error depends on " + Long.bitCount(conflict) + " of " + numGuesses + " guesses");
+		return conflict;
+	}
+
+	/**
+	 * This method returns the guess levels of an error: an empty Cell, a
+	 * value set twice in a unit or a value missing from a unit. Of all errors in the
+	 * grid, the one whose latest guess is the earliest is taken, so the
+	 * search can go back as far as possible; every pending level if there is
+	 * no error.
+	 * 
+	 * @return long
+	 */
+	private long conflictLevels() {
+		// levels compare like unsigned numbers, the latest guess first
+		long best = guessLevels();
+		if (numEmptyCells > 0) {
+			for (int index = 0; index < cells.length; index++) {
+				if (cells[index].valueWasSet() == false && cells[index].getNumPossible() == 0) {
+					long levels = 0;
+					for (int v = 1; v <= dimension; v++)
+						levels |= removedBy[index * (dimension + 1) + v];
+					if (Long.compareUnsigned(levels, best) < 0)
+						best = levels;
+				}
+			}
+		}
+		for (int unit = 0; unit < topology.numUnits; unit++) {
+			for (int value = 1; value <= dimension; value++) {
+				int placed = numPlaced(unit, value);
+				long levels = best;
+				if (placed == 0 && candidateCounts[unit * (dimension + 1) + value] == 0) {
+					levels = unitLevels(unit, value, -1);
+				} else if (placed > 1) {
+					levels = 0;
+					for (int n = 0; n < dimension; n++) {
+						int index = topology.unitCells[unit * dimension + n];
+						if (cells[index].getCellValue() == value)
+							levels |= assignedBy[index];
+					}
+				}
+				if (Long.compareUnsigned(levels, best) < 0)
+					best = levels;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * This method returns the guess levels of the Cells of a unit, except
+	 * one, with respect to a value: of the value if it is set there, of
+	 * another value if one is set, and otherwise of the removal of the value.
+	 * 
+	 * @param unit, Topology unit number
+	 * @param value
+	 * @param except, index of the Cell left out, or -1
+	 * @return long
+	 */
+	private long unitLevels(int unit, int value, int except) {
+		long levels = 0;
+		for (int n = 0; n < dimension; n++) {
+			int index = topology.unitCells[unit * dimension + n];
+			if (index == except)
+				continue;
+			if (cells[index].valueWasSet() == true)
+				levels |= assignedBy[index];
+			else
+				levels |= removedBy[index * (dimension + 1) + value];
+		}
+		return levels;
+	}
+
+	/**
+	 * This method removes the possible values of a Cell which would complete
+	 * a stored nogood, i.e. every other value of the nogood is set already.
+	 * 
+	 * @param index, index of the Cell about to be guessed
+	 * @return boolean, true if any value was removed
+	 * @throws IOException
+	 */
+	private boolean pruneByNogoods(int index) throws IOException {
+		Cell cell = cells[index];
+		int numPruned = 0;
+		for (int v = cell.getLowestPossible(); v != 0; v = cell.getNextPossible(v)) {
+			int literal = index * (dimension + 1) + v;
+			for (int i = 0; i < nogoods.numNogoods(literal); i++) {
+				int n = nogoods.nogoodOf(literal, i);
+				long levels = 0;
+				boolean complete = true;
+				// the latest guesses come last, they are the most likely to be taken back
+				for (int k = nogoods.length(n) - 1; k >= 0 && complete; k--) {
+					int other = nogoods.literal(n, k);
+					if (other == literal)
+						continue;
+					Cell otherCell = cells[other / (dimension + 1)];
+					if (otherCell.valueWasSet() == true && otherCell.getCellValue() == other % (dimension + 1))
+						levels |= assignedBy[other / (dimension + 1)];
+					else
+						complete = false;
+				}
+				if (complete) {
+					nogoods.markUsed(n);
+					removePossibleValue(index, v, levels);
+					numPruned++;
+					break;
+				}
+			}
+		}
+		if (numPruned == 0)
+			return false;
+		stats.nogoodPrunes += numPruned;
+		if (stepLog != null)
+			stepLog.recordNogoods(index, numPruned);
+		if (traceLevel != TRACE_OFF)
+			writer.write("\n learned nogoods removed " + numPruned + " possible values of row: " + (index / dimension) + " col: " + (index % dimension) + "\n");
+		return true;
+	}
+
+	/**
+	 * This method returns a String containing all known and possible values of the
+	 * puzzle. Specific formatting is used for increased readability.
+	 * 
+	 * @return String
+	 */
+	private String printGiantGrid() {
+
+		int boxSize = topology.boxSize;
+		// every possible value gets as many characters as the largest value
+		int width = String.valueOf(dimension).length();
+		StringBuilder str = new StringBuilder();
+		String border = null;
+		for (int i = 0; i < dimension; i++) {
+			// each Cell is drawn as boxSize lines of boxSize possible values
+			for (int line = 0; line < boxSize; line++) {
+				StringBuilder row = new StringBuilder(" |");
+				for (int j = 0; j < dimension; j++) {
+					Cell temp = grid[i][j];
+					for (int k = 0; k < boxSize; k++) {
+						int value = line * boxSize + k + 1;
+						String text;
+						if (temp.valueWasSet() == true)
+							text = String.valueOf(temp.getCellValue());
+						else if (temp.getPossibleNum(value - 1) == true)
+							text = String.valueOf(value);
+						else
+							text = "";
+						for (int pad = text.length(); pad < width; pad++)
+							row.append(line == boxSize - 1 ? '_' : ' ');
+						row.append(text);
+						if (k != boxSize - 1)
+							row.append(line == boxSize - 1 ? '_' : ' ');
+					}
+					row.append('|');
+					if ((j + 1) % boxSize == 0 && j != dimension - 1)
+						row.append(" |");
+				}
+				if (border == null) {
+					border = " ";
+					for (int c = 1; c < row.length(); c++)
+						border += c % 2 == 0 ? "_" : " ";
+					str.append('\n').append(border).append('\n');
+				}
+				str.append(row).append('\n');
+			}
+			if ((i + 1) % boxSize == 0 && i != dimension - 1)
+				str.append(border).append('\n');
+		}
+		return str.toString();
+	}
+
+	/**
+	 * This method sets values until both worklists are empty, i.e. until no Cell
+	 * has one possible value and no row, column or subgrid has a value which
+	 * fits only one Cell. Setting a value removes it from the neighboring Cells, which puts
+	 * them back on the worklists, so the work done depends on the number of
+	 * changes and not on the size of the grid. It stops early at an empty cell,
+	 * a missing value or an error.
+	 * 
+	 * @return boolean, true if any value was set
+	 * @throws IOException
+	 */
+	private boolean propagate() throws IOException {
+		boolean found = false;
+		while (hasContradiction() == false) {
+			if (cellQueueSize > 0) {
+				int index = cellQueue[cellQueueHead];
+				cellQueued[index] = false;
+				cellQueueHead = cellQueueHead + 1 == cellQueue.length ? 0 : cellQueueHead + 1;
+				cellQueueSize--;
+				Cell cell = cells[index];
+				// part 2: if there is only one possible value for a cell it's that value
+				if (cell.valueWasSet() == false && cell.getNumPossible() == 1) {
+					int i = index / dimension;
+					int j = index % dimension;
+					if (traceLevel != TRACE_OFF) {
+						writer.write("\n\n cell in row: " + i + ", col: " + j + " (value = "	+ cell.getCellValue() + ") has one possible value: " + cell.possibleNumsToString() + "\n");
+						if (traceLevel == TRACE_FULL)
+							writer.write("\n grid before solution zero update: " + "\n numSet: " + numSet + "\n" + printGrid());
+					}
+					if (stepLog != null)
+						stepLog.record(StepLog.NAKED_SINGLE, index, cell.getLowestPossible());
+					// the value depends on the removal of every other value
+					int value = cell.getLowestPossible();
+					long levels = 0;
+					if (nogoods != null) {
+						for (int v = 1; v <= dimension; v++) {
+							if (v != value)
+								levels |= removedBy[index * (dimension + 1) + v];
+						}
+					}
+					setValue(index, value, levels);
+					updateGrid(index);
+					numSet++;
+					stats.nakedSingles++;
+					if (traceLevel == TRACE_FULL)
+						writer.write("\n grid after solution zero update: " + "\n numSet: " + numSet + "\n" + printGrid());
+					found = true;
+				}
+			} else if (unitQueueSize > 0) {
+				int entry = unitQueue[unitQueueHead];
+				unitQueued[entry] = false;
+				unitQueueHead = unitQueueHead + 1 == unitQueue.length ? 0 : unitQueueHead + 1;
+				unitQueueSize--;
+				// part 3: this solution technique checks if only one cell can be a value in a unit
+				if (setHiddenSingle(entry / (dimension + 1), entry % (dimension + 1)))
+					found = true;
+			} else {
+				return found;
+			}
+		}
+		// whatever is left on the worklists belongs to a grid which is about to be undone
+		clearQueues();
+		return found;
+	}
+
+	/**
+	 * This method sets a value in the only Cell of a row, column or subgrid
+	 * where it is still possible, if it isn't set in that unit already. If the
+	 * value isn't possible anywhere in the unit, 'valueMissing' is set.
+	 * 
+	 * @param unit, Topology unit number of the row, column or subgrid
+	 * @param value, the value which was down to one Cell
+	 * @return boolean, true if the value was set
+	 * @throws IOException
+	 */
+	private boolean setHiddenSingle(int unit, int value) throws IOException {
+		int count = candidateCounts[unit * (dimension + 1) + value];
+		if (count > 1 || numPlaced(unit, value) > 0)
+			return false;
+		if (count == 0) {
+			valueMissing = true;
+			return false;
+		}
+		int start = unit * dimension;
+		for (int n = 0; n < dimension; n++) {
+			int index = topology.unitCells[start + n];
+			if (cells[index].valueWasSet() == false && cells[index].getPossibleNum(value - 1) == true) {
+				if (traceLevel != TRACE_OFF)
+					writer.write("\nsecond solution technique will be used\ncell in row: " + (index / dimension) + ", col: " + (index % dimension) + " equals " + value + "\n"
+							+ (traceLevel == TRACE_FULL ? printGrid() : ""));
+				if (stepLog != null)
+					stepLog.record(StepLog.HIDDEN_SINGLE, index, value);
+				setValue(index, value, nogoods == null ? 0 : unitLevels(unit, value, index));
+				if (traceLevel == TRACE_FULL)
+					writer.write("\nsecond solution technique was used\n" + printGrid());
+				updateGrid(index);
+				numSet++;
+				stats.hiddenSingles++;
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * This method returns how many Cells of a unit were set to a value, read
+	 * from the occupancy counters.
+	 * 
+	 * @param unit, Topology unit number
+	 * @param value
+	 * @return int
+	 */
+	int numPlaced(int unit, int value) {
+		if (unit < dimension)
+			return rowCounts[unit * (dimension + 1) + value];
+		if (unit < 2 * dimension)
+			return columnCounts[(unit - dimension) * (dimension + 1) + value];
+		return subGridCounts[(unit - 2 * dimension) * (dimension + 1) + value];
+	}
+
+	/**
+	 * This method returns true if the grid can't be solved the way it is: a
+	 * Cell has no possible values, a unit is missing a value or a value appears
+	 * twice in a unit.
+	 * 
+	 * @return boolean
+	 */
+	private boolean hasContradiction() {
+		return numEmptyCells > 0 || valueMissing || numberOfErrors() > 0;
+	}
+
+	/**
+	 * This method removes a possible value from an unset Cell for an
+	 * EliminationStrategy. The Cell and its units go on the worklists like
+	 * they do after any other removal.
+	 * 
+	 * @param index, index of the Cell (row * dimension + column)
+	 * @param value to be removed
+	 * @return boolean, true if the value was possible before
+	 */
+	boolean eliminate(int index, int value) {
+		if (cells[index].valueWasSet() == true || cells[index].getPossibleNum(value - 1) == false)
+			return false;
+		// a strategy may have looked at any value of the grid
+		removePossibleValue(index, value, guessLevels());
+		numEliminated++;
+		return true;
+	}
+
+	/**
+	 * This method removes a possible value from every Cell of a unit which is
+	 * not also in another unit, e.g. from the rest of a row outside a subgrid.
+	 * 
+	 * @param unit, Topology unit number of the Cells to change
+	 * @param otherUnit, Topology unit number of the Cells to leave alone
+	 * @param value to be removed
+	 * @return boolean, true if any value was removed
+	 */
+	boolean eliminateOutside(int unit, int otherUnit, int value) {
+		boolean removed = false;
+		int kind = otherUnit / dimension;
+		for (int n = 0; n < dimension; n++) {
+			int index = topology.unitCells[unit * dimension + n];
+			if (topology.cellUnits[index * 3 + kind] != otherUnit && eliminate(index, value))
+				removed = true;
+		}
+		return removed;
+	}
+
+	/**
+	 * This method returns the positions within a unit where a value is still
+	 * possible as a bitmask, bit n for the n-th Cell of the unit in Topology.
+	 * 
+	 * @param unit, Topology unit number
+	 * @param value
+	 * @return long
+	 */
+	long positionsOf(int unit, int value) {
+		long positions = 0;
+		for (int n = 0; n < dimension; n++) {
+			Cell cell = cells[topology.unitCells[unit * dimension + n]];
+			if (cell.valueWasSet() == false && cell.getPossibleNum(value - 1) == true)
+				positions |= 1L << n;
+		}
+		return positions;
+	}
+
+	/**
+	 * This method empties both worklists.
+	 */
+	void clearQueues() {
+		for (int k = cellQueueHead; cellQueueSize > 0; cellQueueSize--) {
+			cellQueued[cellQueue[k]] = false;
+			k = k + 1 == cellQueue.length ? 0 : k + 1;
+		}
+		for (int k = unitQueueHead; unitQueueSize > 0; unitQueueSize--) {
+			unitQueued[unitQueue[k]] = false;
+			k = k + 1 == unitQueue.length ? 0 : k + 1;
+		}
+		cellQueueHead = 0;
+		unitQueueHead = 0;
+	}
+
+	/**
+	 * This method updates the possible values of the neighboring Cells of a given
+	 * Cell.
+	 * 
+	 * @param index, index of the given Cell (row * dimension + column)
+	 * @throws IOException
+	 */
+	void updateGrid(int index) throws IOException {
+
+		int cellValue = cells[index].getCellValue();
+		long levels = nogoods == null ? 0 : assignedBy[index];
+
+		int[] peers = topology.peers;
+		int end = (index + 1) * topology.numPeers;
+		for (int p = index * topology.numPeers; p < end; p++) {
+			if (cells[peers[p]].valueWasSet() == false) {
+				removePossibleValue(peers[p], cellValue, levels);
+			}
+		}
+	}
+
+	/**
+	 * This method prints information to the console about the values in the 'grid'
+	 * array.
+	 * 
+	 * @return String
+	 */
+	String printGrid() {
+		return formatGrid(printValues(), dimension);
+	}
+
+	/**
+	 * This method returns the values of the grid row by row, 0 for unknown values.
+	 * 
+	 * @return int[]
+	 */
+	int[] printValues() {
+		int[] values = new int[dimension * dimension];
+		for (int i = 0; i < values.length; i++)
+			values[i] = cells[i].getCellValue();
+		return values;
+	}
+
+	/**
+	 * This method returns the values of a grid in the format of printGrid(),
+	 * so a StepReplay prints the same grids as the solution steps.
+	 * 
+	 * @param values, dimension * dimension values row by row, 0 for unknown values
+	 * @param dimension, number of rows and columns
+	 * @return String
+	 */
+	static String formatGrid(int[] values, int dimension) {
+		int boxSize = Topology.forDimension(dimension).boxSize;
+		StringBuilder str = new StringBuilder(dimension * dimension * 3 + dimension);
+		for (int i = 0; i < dimension; i++) {
+			for (int j = 0; j < dimension; j++) {
+				int cell = values[i * dimension + j];
+				if (j == 0) {
+					str.append(' ');
+				}
+				if ((j + 1) % boxSize == 0 && j != dimension - 1) {
+					if (cell > 9)
+						str.append(cell).append('|');
+					else {
+						if ((i + 1) % boxSize == 0 && i != dimension - 1)
+							str.append('_').append(cell).append('|');
+						else
+							str.append(' ').append(cell).append('|');
+					}
+				} else if ((i + 1) % boxSize == 0 && i != dimension - 1) {
+					if (cell > 9) {
+						str.append(cell);
+						if (j != dimension - 1)
+							str.append('_');
+					}
+					else {
+						str.append('_').append(cell);
+						if (j != dimension - 1)
+							str.append('_');
+					}
+				} else {
+					if (cell > 9)
+						str.append(cell).append(' ');
+					else
+						str.append(' ').append(cell).append(' ');
+				}
+			}
+			if (i != dimension - 1)
+				str.append('\n');
+		}
+		return str.toString();
+	}
+
+	/**
+	 * This methods checks for the amount of different kinds of errors. This
+	 * information is returned as a String. The amounts are read from the
+	 * occupancy counters, so no part of the grid is scanned.
+	 * 
+	 * @return String
+	 */
+	String checkGridForErrors() {
+
+		totalErrors = numSubGridErrors + numColumnErrors + numRowErrors;
+
+		String error1 = ("\n errors within subgrids are: " + numSubGridErrors);
+		String error2 = ("\n errors within columns are: " + numColumnErrors);
+		String error3 = ("\n errors within rows are: " + numRowErrors + "\n");
+		return error1 + error2 + error3;
+	}
+
+	/**
+	 * This method returns the total number of errors in the grid. Every Cell
+	 * counts each other Cell in its row, column or subgrid with the same value.
+	 * 
+	 * @return int
+	 */
+	int numberOfErrors() {
+		totalErrors = numSubGridErrors + numColumnErrors + numRowErrors;
+		return totalErrors;
+	}
+
+	/**
+	 * This method sets the value of a Cell and adds it to the occupancy counters
+	 * of its row, column and subgrid.
+	 * 
+	 * @param index, index of the given Cell (row * dimension + column)
+	 * @param value to be assigned to the Cell
+	 * @param levels, guess levels the value depends on, for nogood learning
+	 */
+	private void setValue(int index, int value, long levels) {
+		Cell cell = cells[index];
+		// after a guess the remaining possible values go on the trail one by one,
+		// so undoing the assignment can give them back
+		for (int v = cell.getLowestPossible(); v != 0; v = cell.getNextPossible(v)) {
+			countCandidate(index, v, -1);
+			if (numGuesses > 0)
+				pushTrail(index, REMOVED, v);
+		}
+		if (cell.valueWasSet() == false && cell.getNumPossible() == 0)
+			numEmptyCells--;
+		cell.setCellValue(value);
+		countValue(index, value, 1);
+		if (nogoods != null)
+			assignedBy[index] = levels;
+		if (numGuesses > 0)
+			pushTrail(index, ASSIGNED, value);
+	}
+
+	/**
+	 * This method removes a possible value from a Cell, keeps track of Cells
+	 * whose last possible value was removed and puts the Cell on the worklist
+	 * when it is down to one possible value.
+	 * 
+	 * @param index, index of an unset Cell (row * dimension + column)
+	 * @param value to be removed
+	 * @param levels, guess levels the removal depends on, for nogood learning
+	 */
+	private void removePossibleValue(int index, int value, long levels) {
+		Cell cell = cells[index];
+		if (cell.setValueToFalse(value)) {
+			if (nogoods != null)
+				removedBy[index * (dimension + 1) + value] = levels;
+			int numPossible = cell.getNumPossible();
+			if (numPossible == 0)
+				numEmptyCells++;
+			if (numGuesses > 0)
+				pushTrail(index, REMOVED, value);
+			if (numPossible == 1 && cellQueued[index] == false) {
+				cellQueued[index] = true;
+				int slot = cellQueueHead + cellQueueSize++;
+				cellQueue[slot < cellQueue.length ? slot : slot - cellQueue.length] = index;
+			}
+			countCandidate(index, value, -1);
+		}
+	}
+
+	/**
+	 * This method adds (change = 1) or removes (change = -1) a possible value
+	 * from the candidate counters of a Cell's row, column and subgrid. A unit
+	 * where the value is down to one Cell or none is put on the worklist.
+	 * 
+	 * @param index, index of the Cell (row * dimension + column)
+	 * @param value, the possible value
+	 * @param change, 1 or -1
+	 */
+	private void countCandidate(int index, int value, int change) {
+		int[] cellUnits = topology.cellUnits;
+		for (int k = index * 3; k < index * 3 + 3; k++) {
+			int entry = cellUnits[k] * (dimension + 1) + value;
+			int count = candidateCounts[entry] += change;
+			if (count <= 1 && change < 0 && unitQueued[entry] == false) {
+				unitQueued[entry] = true;
+				// the ring wraps around without a division
+				int slot = unitQueueHead + unitQueueSize++;
+				unitQueue[slot < unitQueue.length ? slot : slot - unitQueue.length] = entry;
+			}
+		}
+	}
+
+	/**
+	 * This method adds one change to the trail.
+	 * 
+	 * @param index, index of the changed Cell (row * dimension + column)
+	 * @param kind, REMOVED or ASSIGNED
+	 * @param value which was removed or assigned
+	 */
+	private void pushTrail(int index, int kind, int value) {
+		if (trailSize == trail.length)
+			trail = Arrays.copyOf(trail, trailSize * 2);
+		trail[trailSize++] = (index << 8) | (kind << 7) | value;
+	}
+
+	/**
+	 * This method takes back changes from the end of the trail, newest first,
+	 * until the trail is back to the given mark.
+	 * 
+	 * @param mark, size of the trail when the guess was made
+	 */
+	void undoTrail(int mark) {
+		while (trailSize > mark) {
+			int entry = trail[--trailSize];
+			int index = entry >>> 8;
+			int value = entry & 127;
+			Cell cell = cells[index];
+			if (((entry >>> 7) & 1) == ASSIGNED) {
+				countValue(index, value, -1);
+				cell.clearCellValue();
+				// the Cell's possible values are given back by the entries before this one
+				numEmptyCells++;
+			} else {
+				if (cell.valueWasSet() == false && cell.getNumPossible() == 0)
+					numEmptyCells--;
+				cell.setValueToTrue(value);
+				countCandidate(index, value, 1);
+			}
+		}
+	}
+
+	/**
+	 * This method adds (change = 1) or removes (change = -1) a value from the
+	 * occupancy counters of a Cell's row, column and subgrid. A value which
+	 * appears c times in a unit causes c * (c - 1) errors, so the error totals
+	 * change by 2 * c with each added copy.
+	 * 
+	 * @param index, index of the Cell (row * dimension + column)
+	 * @param value of the Cell
+	 * @param change, 1 or -1
+	 */
+	private void countValue(int index, int value, int change) {
+		if (value < 1 || value > dimension)
+			return;
+		numRowErrors += countChange(rowCounts, topology.rowOf[index] * (dimension + 1) + value, change);
+		numColumnErrors += countChange(columnCounts, topology.colOf[index] * (dimension + 1) + value, change);
+		numSubGridErrors += countChange(subGridCounts, topology.boxOf[index] * (dimension + 1) + value, change);
+	}
+
+	/**
+	 * This method changes one occupancy counter and returns the resulting change
+	 * in the number of errors.
+	 * 
+	 * @return int
+	 */
+	private int countChange(int[] counts, int index, int change) {
+		int before = counts[index];
+		counts[index] += change;
+		return change > 0 ? 2 * before : -2 * (before - 1);
+	}
+
+	/**
+	 * This method returns the index (row * dimension + column) of the Cell to
+	 * guess, not counting Cells with one possible value or none. Which Cell
+	 * with the fewest possible values is chosen depends on 'cellRule'.
+	 * 
+	 * @return int
+	 */
+	private int chooseGuessCell() {
+		if (cellRule == LAST_FEWEST) {
+			int fewest = dimension;
+			int cellForGuessing = 0;
+			for (int index = 0; index < cells.length; index++) {
+				if (cells[index].getValueWasSet() == false) {
+					if (cells[index].getNumPossible() > 1) {
+						if (cells[index].getNumPossible() <= fewest) {
+							fewest = cells[index].getNumPossible();
+							cellForGuessing = index;
+						}
+					}
+				}
+			}
+			return cellForGuessing;
+		}
+		int fewest = dimension + 1;
+		int cellForGuessing = 0;
+		// the degree of the chosen Cell is only counted once there is a tie
+		int mostUnset = -1;
+		for (int index = 0; index < cells.length; index++) {
+			int numPossible = cells[index].getNumPossible();
+			if (cells[index].getValueWasSet() == true || numPossible < 2 || numPossible > fewest)
+				continue;
+			if (numPossible < fewest) {
+				fewest = numPossible;
+				cellForGuessing = index;
+				mostUnset = -1;
+			} else if (cellRule == MRV_DEGREE) {
+				if (mostUnset < 0)
+					mostUnset = numUnsetPeers(cellForGuessing);
+				int unset = numUnsetPeers(index);
+				if (unset > mostUnset) {
+					mostUnset = unset;
+					cellForGuessing = index;
+				}
+			}
+		}
+		return cellForGuessing;
+	}
+
+	/**
+	 * This method returns the number of unset neighboring Cells of a Cell.
+	 * 
+	 * @param index, index of the Cell (row * dimension + column)
+	 * @return int
+	 */
+	private int numUnsetPeers(int index) {
+		int count = 0;
+		int end = (index + 1) * topology.numPeers;
+		for (int p = index * topology.numPeers; p < end; p++) {
+			if (cells[topology.peers[p]].valueWasSet() == false)
+				count++;
+		}
+		return count;
+	}
+
+	/**
+	 * This method returns the value of a Cell to guess first, depending on
+	 * 'valueRule'.
+	 * 
+	 * @param index, index of the guessed Cell (row * dimension + column)
+	 * @return int
+	 */
+	private int chooseGuessValue(int index) {
+		Cell cell = cells[index];
+		if (valueRule == LOWEST)
+			return cell.getLowestPossible();
+		int best = 0;
+		int fewest = Integer.MAX_VALUE;
+		for (int v = cell.getLowestPossible(); v != 0; v = cell.getNextPossible(v)) {
+			int count = 0;
+			if (valueRule == LCV) {
+				int end = (index + 1) * topology.numPeers;
+				for (int p = index * topology.numPeers; p < end; p++) {
+					if (cells[topology.peers[p]].getPossibleNum(v - 1) == true)
+						count++;
+				}
+			} else {
+				for (int k = 0; k < 3; k++)
+					count += candidateCounts[topology.cellUnits[index * 3 + k] * (dimension + 1) + v];
+			}
+			if (count < fewest) {
+				fewest = count;
+				best = v;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * This method splits the search at a guess: every possible value of the
+	 * guessed Cell is tried by its own ParallelSearch task, each on a copy of
+	 * this grid. The solution of the first task to find one is copied back.
+	 * 
+	 * @return boolean, true if the puzzle was solved
+	 * @throws IOException
+	 */
+	private boolean splitSearch() throws IOException {
+		int cellForGuessing = chooseGuessCell();
+		int row = cellForGuessing / dimension;
+		int col = cellForGuessing % dimension;
+		if (traceLevel != TRACE_OFF)
+			writer.write("\n search is split at row " + row + ", col " + col + ", possible nums = " + grid[row][col].possibleNumsToString() + "\n");
+		if (cancelled == null)
+			cancelled = new AtomicBoolean();
+		int[] solution = ParallelSearch.search(this, row, col);
+		if (solution == null)
+			return false;
+		for (int i = 0; i < dimension; i++) {
+			for (int j = 0; j < dimension; j++) {
+				if (grid[i][j].valueWasSet() == false) {
+					if (stepLog != null)
+						stepLog.record(StepLog.SPLIT, i * dimension + j, solution[i * dimension + j]);
+					setValue(i * dimension + j, solution[i * dimension + j], 0);
+					numSet++;
+				}
+			}
+		}
+		return isSolved();
+	}
+
+	/**
+	 * This method makes this SudokuSolver a copy of another one at a point
+	 * where no guesses are pending, e.g. to continue its search in a task.
+	 * 
+	 * @param other, SudokuSolver to copy
+	 */
+	void copyFrom(SudokuSolver other) {
+		if (other.nogoods != null && nogoods == null)
+			setNogoodLimit(other.nogoods.getCapacity());
+		if (grid == null || dimension != other.dimension)
+			load(new int[other.dimension * other.dimension], other.dimension);
+		else
+			reset();
+		for (int i = 0; i < dimension; i++) {
+			for (int j = 0; j < dimension; j++) {
+				grid[i][j].copyFrom(other.grid[i][j]);
+			}
+		}
+		System.arraycopy(other.rowCounts, 0, rowCounts, 0, rowCounts.length);
+		System.arraycopy(other.columnCounts, 0, columnCounts, 0, columnCounts.length);
+		System.arraycopy(other.subGridCounts, 0, subGridCounts, 0, subGridCounts.length);
+		System.arraycopy(other.candidateCounts, 0, candidateCounts, 0, candidateCounts.length);
+		cellRule = other.cellRule;
+		valueRule = other.valueRule;
+		// strategies keep scratch arrays, so every task gets its own
+		if (strategies.length != other.strategies.length) {
+			EliminationStrategy[] copies = new EliminationStrategy[other.strategies.length];
+			for (int s = 0; s < copies.length; s++)
+				copies[s] = EliminationStrategy.create(other.strategies[s].getName());
+			setStrategies(copies);
+		}
+		numRowErrors = other.numRowErrors;
+		numColumnErrors = other.numColumnErrors;
+		numSubGridErrors = other.numSubGridErrors;
+		numEmptyCells = other.numEmptyCells;
+		numSet = other.numSet;
+		// everything copied is known before the first guess of this SudokuSolver
+		if (nogoods != null) {
+			Arrays.fill(removedBy, 0);
+			Arrays.fill(assignedBy, 0);
+		}
+	}
+
+	/**
+	 * This method sets a value as if it was known, and removes it from the
+	 * possible values of the neighboring Cells. It is used for the first value
+	 * of a task of the parallel search.
+	 * 
+	 * @param row, row index of an unset Cell
+	 * @param col, column index of an unset Cell
+	 * @param value to be assigned
+	 * @throws IOException
+	 */
+	void assign(int row, int col, int value) throws IOException {
+		setValue(row * dimension + col, value, 0);
+		numSet++;
+		updateGrid(row * dimension + col);
+	}
+
+	/**
+	 * This method returns a Cell object which has the first occurrence of the
+	 * lowest possible numbers in the grid
+	 * 
+	 * @return Cell object
+	 * @throws IOException
+	 */
+	void setCellGuess() throws IOException {
+		if (traceLevel == TRACE_FULL)
+			writer.write("\n grid before guess\n" + printGrid());
+		int cellForGuessing = chooseGuessCell();
+		int row = cellForGuessing / dimension;
+		int col = cellForGuessing % dimension;
+		// a value which would complete a nogood is removed, and the worklists
+		// take over again instead of guessing
+		if (nogoods != null && pruneByNogoods(cellForGuessing))
+			return;
+		int guess = chooseGuessValue(cellForGuessing);
+		if (traceLevel != TRACE_OFF)
+			writer.write("\n cellForGuessing is: row " + row + ", col " + col + ", possible nums = " + grid[row][col].possibleNumsToString() + ", guess = " + guess + "\n");
+
+		// instead of saving a copy of the grid, the guess remembers where the trail is
+		if ((numGuesses + 1) * GUESS_SIZE > guessStates.length)
+			guessStates = Arrays.copyOf(guessStates, guessStates.length * 2);
+		int tempGuess = numGuesses * GUESS_SIZE;
+		guessStates[tempGuess] = trailSize;
+		guessStates[tempGuess + 1] = row;
+		guessStates[tempGuess + 2] = col;
+		guessStates[tempGuess + 3] = guess;
+		guessStates[tempGuess + 4] = numSet;
+		numGuesses++;
+		stats.guesses++;
+		stats.maxDepth = Math.max(stats.maxDepth, numGuesses);
+		if (traceLevel != TRACE_OFF)
+			writer.write("\n guess was SAVED, number of guesses: " + numGuesses + "\n");
+		if (stepLog != null)
+			stepLog.recordGuess(cellForGuessing, guess, cells[cellForGuessing]);
+
+		setValue(cellForGuessing, guess, levelBit(numGuesses));
+		numSet++;
+		updateGrid(cellForGuessing);
+		if (traceLevel == TRACE_FULL)
+			writer.write("\n updated grid after guess\n" + printGrid());
+	}
+}
\ No newline at end of file
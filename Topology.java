@@ -0,0 +1,99 @@
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This class holds the layout of a grid of a given dimension as flat tables,
+ * so the solving methods don't have to work out subgrid boundaries while they
+ * run. Cells are numbered row by row, index = row * dimension + column.
+ *
+ * definition of 'unit': a row, column or subgrid. Units 0 to dimension - 1 are
+ * the rows, dimension to 2 * dimension - 1 the columns and 2 * dimension to
+ * 3 * dimension - 1 the subgrids (numbered row by row as well).
+ *
+ * A Topology never changes once it is built, and one Topology is shared by
+ * every puzzle of the same dimension (see forDimension).
+ *
+ * @author devankarsann
+ */
+
+public final class Topology {
+
+	private static final ConcurrentHashMap<Integer, Topology> CACHE = new ConcurrentHashMap<Integer, Topology>();
+
+	final int dimension;
+	final int boxSize;
+	final int numCells;
+	final int numUnits;
+	// number of neighboring Cells of every Cell
+	final int numPeers;
+	// peers[cell * numPeers + k] is the k-th neighboring Cell of a Cell
+	final int[] peers;
+	// unitCells[unit * dimension + k] is the k-th Cell of a unit
+	final int[] unitCells;
+	// cellUnits[cell * 3] is the row unit, + 1 the column unit and + 2 the subgrid unit of a Cell
+	final int[] cellUnits;
+	// row, column and subgrid number (0 to dimension - 1) of every Cell
+	final int[] rowOf;
+	final int[] colOf;
+	final int[] boxOf;
+
+	/**
+	 * This method returns the Topology of a dimension, building it on first use.
+	 *
+	 * @param dimension, number of rows and columns, a square number
+	 * @return Topology
+	 */
+	public static Topology forDimension(int dimension) {
+		Topology topology = CACHE.get(dimension);
+		if (topology == null) {
+			topology = new Topology(dimension);
+			Topology other = CACHE.putIfAbsent(dimension, topology);
+			if (other != null)
+				topology = other;
+		}
+		return topology;
+	}
+
+	/**
+	 * This is the constructor method for a Topology object. It fills every table.
+	 *
+	 * @param dimension, number of rows and columns, a square number
+	 */
+	private Topology(int dimension) {
+		boxSize = (int) Math.round(Math.sqrt(dimension));
+		if (boxSize * boxSize != dimension)
+			throw new IllegalArgumentException("the dimension must be a square number, not " + dimension);
+		this.dimension = dimension;
+		numCells = dimension * dimension;
+		numUnits = 3 * dimension;
+		numPeers = 3 * (dimension - 1) - 2 * (boxSize - 1);
+
+		rowOf = new int[numCells];
+		colOf = new int[numCells];
+		boxOf = new int[numCells];
+		cellUnits = new int[numCells * 3];
+		unitCells = new int[numUnits * dimension];
+		int[] numInUnit = new int[numUnits];
+		for (int cell = 0; cell < numCells; cell++) {
+			int row = cell / dimension;
+			int col = cell % dimension;
+			int box = (row / boxSize) * boxSize + col / boxSize;
+			rowOf[cell] = row;
+			colOf[cell] = col;
+			boxOf[cell] = box;
+			int[] units = { row, dimension + col, 2 * dimension + box };
+			for (int k = 0; k < 3; k++) {
+				cellUnits[cell * 3 + k] = units[k];
+				unitCells[units[k] * dimension + numInUnit[units[k]]++] = cell;
+			}
+		}
+
+		peers = new int[numCells * numPeers];
+		for (int cell = 0; cell < numCells; cell++) {
+			int count = 0;
+			for (int other = 0; other < numCells; other++) {
+				if (other != cell && (rowOf[other] == rowOf[cell] || colOf[other] == colOf[cell] || boxOf[other] == boxOf[cell]))
+					peers[cell * numPeers + count++] = other;
+			}
+		}
+	}
+}
@@ -0,0 +1,302 @@
+/**
+ * This is the flat array engine of my Sudoku solving program, meant for 25x25
+ * and larger puzzles. Instead of Cell objects, the possible values of every
+ * Cell are one long in a flat array (bit v - 1 set if value v is possible, so
+ * up to 64x64), and the loops over the neighboring Cells of a Cell and over
+ * all units are the kernels of CandidateKernels, which use the Vector API
+ * when it is there and scalar loops otherwise. Both give exactly
+ * the same results, the solution and the number of guesses.
+ *
+ * The techniques are those of parts 2 and 3 of SudokuSolver, one possible
+ * value and one possible Cell, run until they set nothing more, then the Cell
+ * with the fewest possible values is guessed, lowest value first. The state
+ * before each guess is copied, so a bad guess is taken back by copying it back.
+ *
+ * definition of 'value bits': valueBits[cell] is the bit of the value set in a
+ * Cell, 0 while it is unknown, so duplicates are found with the same kernel
+ * as the values with one possible Cell
+ *
+ * @author devankarsann
+ */
+
+public class VectorSolver implements SudokuEngine {
+
+	private final CandidateKernels kernels;
+	private int dimension = 0;
+	private Topology topology;
+	private long allValues;
+	private long[] possible;
+	private long[] valueBits;
+	private int numSet;
+	// values possible in at least one and at least two Cells of every unit
+	private long[] union;
+	private long[] twice;
+	// state before each guess, and the Cell and values left to try at each guess level
+	private long[][] savedPossible;
+	private long[][] savedValueBits;
+	private int[] savedNumSet;
+	private int[] guessCell;
+	private long[] guessValuesLeft;
+	private long numGuesses;
+
+	/**
+	 * This is the constructor method for a VectorSolver object which uses the
+	 * Vector API if it can (see CandidateKernels.create).
+	 */
+	public VectorSolver() {
+		this(CandidateKernels.create());
+	}
+
+	/**
+	 * This is the constructor method for a VectorSolver object.
+	 *
+	 * @param kernels, the loops over units and neighboring Cells
+	 */
+	public VectorSolver(CandidateKernels kernels) {
+		this.kernels = kernels;
+	}
+
+	/**
+	 * This method returns the name of the kernels in use, "vector" or "scalar".
+	 *
+	 * @return String
+	 */
+	public String getKernelName() {
+		return kernels.getName();
+	}
+
+	/**
+	 * This method returns the number of guesses made by the last solve.
+	 *
+	 * @return long
+	 */
+	public long getNumGuesses() {
+		return numGuesses;
+	}
+
+	/**
+	 * This method solves a puzzle and returns its values row by row, or null if
+	 * the puzzle has an error in its input or no solution.
+	 *
+	 * @param cells, dimension * dimension values row by row, 0 for unknown values
+	 * @param dimension, number of rows and columns, at most 49
+	 * @return int[]
+	 */
+	public int[] solve(int[] cells, int dimension) {
+		SudokuEngine.checkPuzzle(cells, dimension);
+		if (this.dimension != dimension)
+			build(dimension);
+		numGuesses = 0;
+		if (load(cells) == false)
+			return null;
+
+		int depth = 0;
+		boolean consistent = propagate();
+		while (true) {
+			if (consistent && numSet == valueBits.length)
+				return hasErrors() ? null : values();
+			if (consistent) {
+				// a new guess level, its values are tried below
+				int cell = fewestPossible();
+				save(depth);
+				guessCell[depth] = cell;
+				guessValuesLeft[depth] = possible[cell];
+				depth++;
+			}
+			// the next value of the deepest guess level with values left
+			while (depth > 0 && guessValuesLeft[depth - 1] == 0)
+				depth--;
+			if (depth == 0)
+				return null;
+			restore(depth - 1);
+			long bit = guessValuesLeft[depth - 1] & -guessValuesLeft[depth - 1];
+			guessValuesLeft[depth - 1] &= ~bit;
+			numGuesses++;
+			set(guessCell[depth - 1], bit);
+			consistent = propagate();
+		}
+	}
+
+	/**
+	 * This method makes the arrays for a dimension.
+	 *
+	 * @param dimension, number of rows and columns
+	 */
+	private void build(int dimension) {
+		this.dimension = dimension;
+		topology = Topology.forDimension(dimension);
+		int numCells = dimension * dimension;
+		allValues = dimension == 64 ? -1L : (1L << dimension) - 1;
+		possible = new long[numCells];
+		union = new long[topology.numUnits];
+		twice = new long[topology.numUnits];
+		valueBits = new long[numCells];
+		savedPossible = new long[numCells][];
+		savedValueBits = new long[numCells][];
+		savedNumSet = new int[numCells];
+		guessCell = new int[numCells];
+		guessValuesLeft = new long[numCells];
+	}
+
+	/**
+	 * This method sets the givens and removes them from the possible values
+	 * of their neighboring Cells.
+	 *
+	 * @param cells, values of the puzzle
+	 * @return boolean, false if a value is out of range or given twice in a unit
+	 */
+	private boolean load(int[] cells) {
+		numSet = 0;
+		for (int i = 0; i < cells.length; i++) {
+			if (cells[i] < 0 || cells[i] > dimension)
+				return false;
+			possible[i] = cells[i] == 0 ? allValues : 1L << (cells[i] - 1);
+			valueBits[i] = cells[i] == 0 ? 0 : possible[i];
+		}
+		if (hasErrors())
+			return false;
+		for (int i = 0; i < cells.length; i++) {
+			if (cells[i] != 0) {
+				numSet++;
+				kernels.removeValue(possible, topology, i, valueBits[i]);
+				possible[i] = valueBits[i];
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * This method sets the value of a Cell and removes it from the possible
+	 * values of the neighboring Cells.
+	 *
+	 * @param cell, index of the Cell
+	 * @param bit, the value
+	 */
+	private void set(int cell, long bit) {
+		kernels.removeValue(possible, topology, cell, bit);
+		possible[cell] = bit;
+		valueBits[cell] = bit;
+		numSet++;
+	}
+
+	/**
+	 * This method sets Cells with one possible value and values with one
+	 * possible Cell in a unit until there are none left.
+	 *
+	 * @return boolean, false if a Cell has no possible value or a value has
+	 * no possible Cell in a unit
+	 */
+	private boolean propagate() {
+		int[] unitCells = topology.unitCells;
+		boolean changed = true;
+		while (changed) {
+			changed = false;
+			for (int cell = 0; cell < possible.length; cell++) {
+				if (valueBits[cell] != 0)
+					continue;
+				long values = possible[cell];
+				if (values == 0)
+					return false;
+				if ((values & (values - 1)) == 0) {
+					set(cell, values);
+					changed = true;
+				}
+			}
+			kernels.reduceUnits(possible, topology, union, twice);
+			for (int unit = 0; unit < topology.numUnits; unit++) {
+				int offset = unit * dimension;
+				if (union[unit] != allValues)
+					return false;
+				// a value which is set is possible in its own Cell only, it is skipped below
+				long hidden = union[unit] & ~twice[unit];
+				while (hidden != 0) {
+					long bit = hidden & -hidden;
+					hidden &= ~bit;
+					int cell = -1;
+					for (int k = offset; k < offset + dimension && cell < 0; k++) {
+						if ((possible[unitCells[k]] & bit) != 0)
+							cell = unitCells[k];
+					}
+					// another value of this unit was set in the same Cell
+					if (cell < 0)
+						return false;
+					if (valueBits[cell] != 0)
+						continue;
+					set(cell, bit);
+					changed = true;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * This method returns the unknown Cell with the fewest possible values,
+	 * the first one of them.
+	 *
+	 * @return int
+	 */
+	private int fewestPossible() {
+		int best = -1;
+		int fewest = Integer.MAX_VALUE;
+		for (int cell = 0; cell < possible.length; cell++) {
+			if (valueBits[cell] == 0 && Long.bitCount(possible[cell]) < fewest) {
+				fewest = Long.bitCount(possible[cell]);
+				best = cell;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * This method returns true if a value is set twice in a unit.
+	 *
+	 * @return boolean
+	 */
+	private boolean hasErrors() {
+		kernels.reduceUnits(valueBits, topology, union, twice);
+		for (int unit = 0; unit < topology.numUnits; unit++) {
+			if (twice[unit] != 0)
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * This method copies the state before a guess.
+	 *
+	 * @param level, guess level
+	 */
+	private void save(int level) {
+		if (savedPossible[level] == null) {
+			savedPossible[level] = new long[possible.length];
+			savedValueBits[level] = new long[possible.length];
+		}
+		System.arraycopy(possible, 0, savedPossible[level], 0, possible.length);
+		System.arraycopy(valueBits, 0, savedValueBits[level], 0, possible.length);
+		savedNumSet[level] = numSet;
+	}
+
+	/**
+	 * This method copies back the state before a guess.
+	 *
+	 * @param level, guess level
+	 */
+	private void restore(int level) {
+		System.arraycopy(savedPossible[level], 0, possible, 0, possible.length);
+		System.arraycopy(savedValueBits[level], 0, valueBits, 0, possible.length);
+		numSet = savedNumSet[level];
+	}
+
+	/**
+	 * This method returns the values of the solved grid.
+	 *
+	 * @return int[]
+	 */
+	private int[] values() {
+		int[] values = new int[valueBits.length];
+		for (int i = 0; i < values.length; i++)
+			values[i] = Long.numberOfTrailingZeros(valueBits[i]) + 1;
+		return values;
+	}
+}
@@ -0,0 +1,72 @@
+/**
+ * This is the X-Wing strategy. If a value is possible in exactly the same two
+ * columns of two rows, it has to be in opposite corners of that rectangle, so
+ * it is removed from the rest of both columns. The same goes for two columns
+ * and the rest of their rows.
+ *
+ * @author devankarsann
+ */
+
+public class XWing implements EliminationStrategy {
+
+	// positions of the value in each row (or column) which has it exactly twice
+	private long[] linePositions = new long[0];
+
+	public String getName() {
+		return "x-wing";
+	}
+
+	public boolean apply(SudokuSolver solver) {
+		int dimension = solver.dimension;
+		if (linePositions.length != dimension)
+			linePositions = new long[dimension];
+		boolean removed = false;
+		for (int value = 1; value <= dimension; value++) {
+			// rows first (crossing units are columns), then columns (crossing units are rows)
+			if (findXWing(solver, value, 0, dimension))
+				removed = true;
+			if (findXWing(solver, value, dimension, 0))
+				removed = true;
+		}
+		return removed;
+	}
+
+	/**
+	 * This method looks for two lines of one kind with the same two positions
+	 * of a value and removes the value from the crossing lines.
+	 *
+	 * @param solver, SudokuSolver being solved
+	 * @param value to look for
+	 * @param firstLine, Topology unit number of the first row or column
+	 * @param firstCrossing, Topology unit number of the first crossing line
+	 * @return boolean, true if any value was removed
+	 */
+	private boolean findXWing(SudokuSolver solver, int value, int firstLine, int firstCrossing) {
+		int dimension = solver.dimension;
+		for (int line = 0; line < dimension; line++) {
+			long positions = 0;
+			if (solver.candidateCounts[(firstLine + line) * (dimension + 1) + value] == 2)
+				positions = solver.positionsOf(firstLine + line, value);
+			linePositions[line] = positions;
+		}
+		boolean removed = false;
+		for (int line = 0; line < dimension; line++) {
+			if (linePositions[line] == 0)
+				continue;
+			for (int other = line + 1; other < dimension; other++) {
+				if (linePositions[other] != linePositions[line])
+					continue;
+				// the n-th Cell of a row is in column n and the other way around
+				for (long rest = linePositions[line]; rest != 0; rest &= rest - 1) {
+					int crossing = firstCrossing + Long.numberOfTrailingZeros(rest);
+					for (int n = 0; n < dimension; n++) {
+						if (n != line && n != other
+								&& solver.eliminate(solver.topology.unitCells[crossing * dimension + n], value))
+							removed = true;
+					}
+				}
+			}
+		}
+		return removed;
+	}
+}
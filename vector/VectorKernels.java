@@ -0,0 +1,135 @@
+import java.util.Arrays;
+
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * This class is the Vector API implementation of CandidateKernels. It only
+ * loads Cells which lie next to each other in the flat array, whole vectors
+ * of 4 longs from a row, and does the Cells left over one at a time.
+ * Gathering the Cells of a column or subgrid through an index table was
+ * slower than the scalar loops, so columns and subgrids are reduced the other
+ * way around: row after row is combined lane by lane into one array of
+ * dimension longs per column, and per subgrid row (band) for the subgrids.
+ * The reduction gains from 16x16 up; a 9x9 row is only two vectors and a
+ * few Cells, so 9x9 puzzles are better off with the scalar kernels.
+ *
+ * It needs the incubator module, so it is kept apart from the other sources
+ * and compiled on its own; CandidateKernels.create() loads it if it is there:
+ *
+ * $ javac --add-modules jdk.incubator.vector -d . vector/VectorKernels.java
+ * $ java --add-modules jdk.incubator.vector BatchSolver puzzles.txt out.txt --engine vector
+ *
+ * @author devankarsann
+ */
+
+public final class VectorKernels implements CandidateKernels {
+
+	// 256 bit vectors measured faster than 512 bit ones for rows of up to 64 Cells
+	private static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_PREFERRED.vectorBitSize() > 256
+			? LongVector.SPECIES_256 : LongVector.SPECIES_PREFERRED;
+
+	// per column, and per column within the current band, at least one and at least two
+	private long[] columnOne = new long[0];
+	private long[] columnTwo;
+	private long[] bandOne;
+	private long[] bandTwo;
+
+	public void removeValue(long[] masks, Topology topology, int cell, long bit) {
+		int dimension = topology.dimension;
+		int boxSize = topology.boxSize;
+		int rowStart = topology.rowOf[cell] * dimension;
+		int col = topology.colOf[cell];
+		LongVector keep = LongVector.broadcast(SPECIES, ~bit);
+		int bound = SPECIES.loopBound(dimension);
+		int k = 0;
+		for (; k < bound; k += SPECIES.length())
+			LongVector.fromArray(SPECIES, masks, rowStart + k).and(keep).intoArray(masks, rowStart + k);
+		for (; k < dimension; k++)
+			masks[rowStart + k] &= ~bit;
+		// the Cells of a column are dimension longs apart, and a subgrid row
+		// is too short for a vector, so both are done one Cell at a time
+		for (int r = 0; r < dimension; r++)
+			masks[r * dimension + col] &= ~bit;
+		int firstRow = topology.rowOf[cell] - topology.rowOf[cell] % boxSize;
+		int firstCol = col - col % boxSize;
+		for (int r = firstRow; r < firstRow + boxSize; r++) {
+			for (int c = firstCol; c < firstCol + boxSize; c++)
+				masks[r * dimension + c] &= ~bit;
+		}
+	}
+
+	public void reduceUnits(long[] masks, Topology topology, long[] union, long[] twice) {
+		int dimension = topology.dimension;
+		int boxSize = topology.boxSize;
+		if (columnOne.length != dimension) {
+			columnOne = new long[dimension];
+			columnTwo = new long[dimension];
+			bandOne = new long[dimension];
+			bandTwo = new long[dimension];
+		}
+		// whole vectors up to 'bound', the Cells after it one by one
+		int bound = SPECIES.loopBound(dimension);
+		Arrays.fill(columnOne, 0);
+		Arrays.fill(columnTwo, 0);
+		for (int row = 0; row < dimension; row++) {
+			if (row % boxSize == 0) {
+				Arrays.fill(bandOne, 0);
+				Arrays.fill(bandTwo, 0);
+			}
+			int rowStart = row * dimension;
+			int k = 0;
+			for (; k < bound; k += SPECIES.length()) {
+				LongVector x = LongVector.fromArray(SPECIES, masks, rowStart + k);
+				LongVector one = LongVector.fromArray(SPECIES, columnOne, k);
+				one.and(x).or(LongVector.fromArray(SPECIES, columnTwo, k)).intoArray(columnTwo, k);
+				one.or(x).intoArray(columnOne, k);
+				one = LongVector.fromArray(SPECIES, bandOne, k);
+				one.and(x).or(LongVector.fromArray(SPECIES, bandTwo, k)).intoArray(bandTwo, k);
+				one.or(x).intoArray(bandOne, k);
+			}
+			for (; k < dimension; k++) {
+				long x = masks[rowStart + k];
+				columnTwo[k] |= columnOne[k] & x;
+				columnOne[k] |= x;
+				bandTwo[k] |= bandOne[k] & x;
+				bandOne[k] |= x;
+			}
+			// a row lies across the lanes, it is reduced one Cell at a time
+			long one = 0;
+			long two = 0;
+			for (k = rowStart; k < rowStart + dimension; k++) {
+				long x = masks[k];
+				two |= one & x;
+				one |= x;
+			}
+			union[row] = one;
+			twice[row] = two;
+			if (row % boxSize == boxSize - 1)
+				reduceBand(row / boxSize, dimension, boxSize, union, twice);
+		}
+		System.arraycopy(columnOne, 0, union, dimension, dimension);
+		System.arraycopy(columnTwo, 0, twice, dimension, dimension);
+	}
+
+	/**
+	 * This method combines the columns of a band per subgrid.
+	 */
+	private void reduceBand(int band, int dimension, int boxSize, long[] union, long[] twice) {
+		int firstBox = 2 * dimension + band * boxSize;
+		for (int box = 0; box < boxSize; box++) {
+			long one = 0;
+			long two = 0;
+			for (int c = box * boxSize; c < (box + 1) * boxSize; c++) {
+				two |= bandTwo[c] | (one & bandOne[c]);
+				one |= bandOne[c];
+			}
+			union[firstBox + box] = one;
+			twice[firstBox + box] = two;
+		}
+	}
+
+	public String getName() {
+		return "vector";
+	}
+}